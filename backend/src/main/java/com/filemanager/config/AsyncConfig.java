@@ -0,0 +1,80 @@
+package com.filemanager.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Runs the blocking follow-up work of asynchronous transfers, such as
+     * saving the file row once an upload lands, off the SDK's I/O threads.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor transferCompletionExecutor(
+            @Value("${app.async.completion-pool-size:8}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(10_000);
+        executor.setThreadNamePrefix("transfer-completion-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Writes the files of batch uploads to storage. Bounded so one large batch
+     * cannot flood storage with connections; when the queue is full the
+     * submitting request thread does the work itself, slowing new batches down.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor batchUploadExecutor(
+            @Value("${app.file.batch.concurrency:8}") int concurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(concurrency * 64);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("batch-upload-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Opens the next object of a ZIP download while the current one is being
+     * written. Each archive has at most one prefetch in flight.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor archivePrefetchExecutor(
+            @Value("${app.file.archive.prefetch-pool-size:16}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(poolSize * 16);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("archive-prefetch-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Generates thumbnails. Small and bounded: image decoding is CPU and memory
+     * heavy, and work rejected when the queue is full is redone on demand.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor thumbnailExecutor(
+            @Value("${app.thumbnail.concurrency:2}") int concurrency,
+            @Value("${app.thumbnail.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("thumbnail-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,95 @@
+package com.filemanager.config;
+
+import com.filemanager.exceptions.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.async.ResponsePublisher;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Non-blocking counterpart of {@link S3Service}. Every call returns at once;
+ * the transfer itself runs on the async client's event loop, so no request
+ * thread waits on the network.
+ */
+@Service
+public class AsyncS3Service {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncS3Service.class);
+    private final S3AsyncClient s3AsyncClient;
+
+    public AsyncS3Service(S3AsyncClient s3AsyncClient) {
+        this.s3AsyncClient = s3AsyncClient;
+    }
+
+    public CompletableFuture<Void> putObject(String bucketName, String key, Path file) {
+        PutObjectRequest objectRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .build();
+        return s3AsyncClient.putObject(objectRequest, AsyncRequestBody.fromFile(file))
+                .handle((response, error) -> {
+                    if (error != null) {
+                        logger.error("Failed to upload file to S3: {}/{}", bucketName, key, error);
+                        throw new CompletionException(new RuntimeException("Failed to upload file to S3", unwrap(error)));
+                    }
+                    logger.debug("Successfully uploaded file to S3: {}/{}", bucketName, key);
+                    return null;
+                });
+    }
+
+    /**
+     * Completes once the object's response headers arrive; the body is then
+     * pulled through the returned publisher at the subscriber's pace.
+     */
+    public CompletableFuture<ResponsePublisher<GetObjectResponse>> getObject(String bucketName, String key) {
+        GetObjectRequest objectRequest = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .build();
+        return s3AsyncClient.getObject(objectRequest, AsyncResponseTransformer.<GetObjectResponse>toPublisher())
+                .handle((publisher, error) -> {
+                    if (error == null) {
+                        return publisher;
+                    }
+                    Throwable cause = unwrap(error);
+                    if (cause instanceof NoSuchKeyException) {
+                        logger.warn("File not found in S3: {}/{}", bucketName, key);
+                        throw new CompletionException(new ResourceNotFoundException("File not found: " + key));
+                    }
+                    logger.error("Unexpected error retrieving file from S3: {}/{}", bucketName, key, cause);
+                    throw new CompletionException(new RuntimeException("Failed to retrieve file from S3", cause));
+                });
+    }
+
+    public CompletableFuture<Void> deleteObject(String bucketName, String key) {
+        DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .build();
+        return s3AsyncClient.deleteObject(deleteObjectRequest)
+                .handle((response, error) -> {
+                    if (error != null) {
+                        logger.error("Failed to delete file from S3: {}/{}", bucketName, key, error);
+                        throw new CompletionException(new RuntimeException("Failed to delete file from S3", unwrap(error)));
+                    }
+                    logger.debug("Successfully deleted file from S3: {}/{}", bucketName, key);
+                    return null;
+                });
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
@@ -0,0 +1,83 @@
+package com.filemanager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas, enabled by listing their JDBC URLs in
+ * {@code app.datasource.replica-urls}. Replicas use the primary's driver,
+ * credentials and {@code spring.datasource.hikari} pool settings. Without
+ * any, the single auto-configured data source is used.
+ */
+@Configuration
+@ConditionalOnExpression("'${app.datasource.replica-urls:}' != ''")
+public class DataSourceConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            DataSourceProperties properties,
+            ReadYourWritesTracker readYourWritesTracker,
+            MeterRegistry meterRegistry,
+            Environment environment,
+            @Value("${app.datasource.replica-urls}") List<String> replicaUrls,
+            @Value("${app.datasource.replica-max-lag-seconds:10}") double maxLagSeconds,
+            @Value("${app.datasource.replica-health-check-ms:5000}") long healthCheckMs,
+            @Value("${app.datasource.read-your-writes-seconds:15}") long readYourWritesSeconds) {
+        // A replica can fall this far behind before a health check takes it out of rotation
+        double worstLagMs = maxLagSeconds * 1000 + healthCheckMs;
+        if (readYourWritesSeconds * 1000 < worstLagMs) {
+            throw new IllegalStateException("app.datasource.read-your-writes-seconds must be at least "
+                    + "replica-max-lag-seconds plus replica-health-check-ms (" + Math.ceil(worstLagMs / 1000) + "s), "
+                    + "or users may not see their own changes");
+        }
+
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = pool(properties, binder, properties.determineUrl());
+        primary.setPoolName("primary");
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            HikariDataSource replica = pool(properties, binder, url.trim());
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+
+        ReplicaRoutingDataSource routingDataSource =
+                new ReplicaRoutingDataSource(primary, replicas, readYourWritesTracker, maxLagSeconds);
+        Gauge.builder("datasource.replicas.healthy", routingDataSource, ReplicaRoutingDataSource::getHealthyReplicaCount)
+                .description("Replicas currently receiving read-only transactions")
+                .register(meterRegistry);
+        return routingDataSource;
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, Binder binder, String url) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setJdbcUrl(url);
+        return pool;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
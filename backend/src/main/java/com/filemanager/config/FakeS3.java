@@ -1,7 +1,5 @@
 package com.filemanager.config;
 
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.awscore.exception.AwsServiceException;
@@ -10,26 +8,75 @@ import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.paginators.ListObjectsV2Iterable;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
 
+/**
+ * Local-disk object store behind the {@link S3Client} interface, used for
+ * development and small on-prem installs.
+ * <p>
+ * Writes stream into a temporary file with {@link FileChannel#transferFrom}
+ * and are published with an atomic rename, so readers never see a partial
+ * object. Durability is controlled by {@link FsyncPolicy}. Reads go through
+ * positioned {@link FileChannel} reads, and objects up to the mmap threshold
+ * are served from a small LRU cache of memory-mapped buffers.
+ */
 public class FakeS3 implements S3Client {
 
     private static final Logger logger = LoggerFactory.getLogger(FakeS3.class);
-    private static final String PATH = System.getProperty("user.home") + "/.filemanager/s3";
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+    private static final String TEMP_PREFIX = ".tmp-";
+
+    public enum FsyncPolicy {
+        /** Leave flushing to the OS page cache. */
+        NEVER,
+        /** Force file contents to disk before the object is published. */
+        DATA,
+        /** Force contents and metadata, and the parent directory after the rename. */
+        ALWAYS
+    }
+
+    private final Path root;
+    private final FsyncPolicy fsyncPolicy;
+    private final long mmapThresholdBytes;
+    private final Map<Path, MappedByteBuffer> mappedObjects;
+
+    public FakeS3(Path root, FsyncPolicy fsyncPolicy, long mmapThresholdBytes, int mmapCacheSize) {
+        this.root = root.toAbsolutePath().normalize();
+        this.fsyncPolicy = fsyncPolicy;
+        this.mmapThresholdBytes = mmapCacheSize > 0 ? mmapThresholdBytes : 0;
+        this.mappedObjects = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, MappedByteBuffer> eldest) {
+                return size() > mmapCacheSize;
+            }
+        };
 
-    static {
         try {
-            Files.createDirectories(Paths.get(PATH));
-            logger.info("Created FakeS3 storage directory: {}", PATH);
+            Files.createDirectories(this.root);
+            logger.info("FakeS3 storage directory: {} (fsync={})", this.root, fsyncPolicy);
         } catch (IOException e) {
-            logger.error("Failed to create FakeS3 storage directory: {}", PATH, e);
+            throw new UncheckedIOException("Failed to create FakeS3 storage directory: " + this.root, e);
         }
     }
 
@@ -40,24 +87,26 @@ public class FakeS3 implements S3Client {
 
     @Override
     public void close() {
-        // No-op for fake implementation
+        synchronized (mappedObjects) {
+            mappedObjects.clear();
+        }
     }
 
     @Override
     public PutObjectResponse putObject(PutObjectRequest putObjectRequest, RequestBody requestBody)
             throws AwsServiceException, SdkClientException {
-        try {
-            InputStream inputStream = requestBody.contentStreamProvider().newStream();
-            byte[] bytes = IOUtils.toByteArray(inputStream);
-            
-            File targetFile = new File(buildObjectFullPath(putObjectRequest.bucket(), putObjectRequest.key()));
-            File parentDir = targetFile.getParentFile();
-            if (parentDir != null && !parentDir.exists()) {
-                parentDir.mkdirs();
-            }
-            
-            FileUtils.writeByteArrayToFile(targetFile, bytes);
-            logger.debug("FakeS3: Stored file at {}", targetFile.getAbsolutePath());
+        Path target = resolveObject(putObjectRequest.bucket(), putObjectRequest.key());
+        try (InputStream inputStream = requestBody.contentStreamProvider().newStream()) {
+            writeAtomically(target, channel -> {
+                try (ReadableByteChannel source = Channels.newChannel(inputStream)) {
+                    long position = 0;
+                    long transferred;
+                    while ((transferred = channel.transferFrom(source, position, TRANSFER_CHUNK)) > 0) {
+                        position += transferred;
+                    }
+                }
+            });
+            logger.debug("FakeS3: Stored file at {}", target);
             return PutObjectResponse.builder().build();
         } catch (IOException e) {
             logger.error("FakeS3: Failed to store file", e);
@@ -68,49 +117,504 @@ public class FakeS3 implements S3Client {
     @Override
     public ResponseInputStream<GetObjectResponse> getObject(GetObjectRequest getObjectRequest)
             throws AwsServiceException, SdkClientException {
+        Path path = resolveObject(getObjectRequest.bucket(), getObjectRequest.key());
         try {
-            String fullPath = buildObjectFullPath(getObjectRequest.bucket(), getObjectRequest.key());
-            File file = new File(fullPath);
-            
-            if (!file.exists()) {
-                throw NoSuchKeyException.builder()
-                        .message("File not found: " + getObjectRequest.key())
-                        .build();
+            long size = Files.size(path);
+            long[] range = parseRange(getObjectRequest.range(), size);
+            GetObjectResponse.Builder response = GetObjectResponse.builder();
+            if (range == null) {
+                response.contentLength(size);
+            } else {
+                response.contentLength(range[1] - range[0] + 1)
+                        .contentRange("bytes " + range[0] + "-" + range[1] + "/" + size);
             }
-            
-            FileInputStream fileInputStream = new FileInputStream(file);
-            logger.debug("FakeS3: Retrieved file from {}", fullPath);
-            return new ResponseInputStream<>(GetObjectResponse.builder().build(), fileInputStream);
-        } catch (FileNotFoundException e) {
+            return new ResponseInputStream<>(response.build(), openObjectStream(path, range));
+        } catch (NoSuchFileException e) {
             logger.warn("FakeS3: File not found: {}", getObjectRequest.key());
             throw NoSuchKeyException.builder()
                     .message("File not found: " + getObjectRequest.key())
                     .build();
+        } catch (IOException e) {
+            logger.error("FakeS3: Failed to open file", e);
+            throw new RuntimeException("Failed to read file from FakeS3", e);
+        }
+    }
+
+    /**
+     * Opens an object as a plain stream whose {@link InputStream#transferTo}
+     * uses {@link FileChannel#transferTo} (or the mapped buffer) instead of a
+     * read loop. {@link ResponseInputStream} hides that override, so callers
+     * that want it must use this method rather than {@link #getObject}.
+     *
+     * @param range an S3-style range such as {@code bytes=0-99}, or null
+     */
+    public InputStream getObjectStream(String bucketName, String key, String range) {
+        Path path = resolveObject(bucketName, key);
+        try {
+            return openObjectStream(path, parseRange(range, Files.size(path)));
+        } catch (NoSuchFileException e) {
+            logger.warn("FakeS3: File not found: {}", key);
+            throw NoSuchKeyException.builder()
+                    .message("File not found: " + key)
+                    .build();
+        } catch (IOException e) {
+            logger.error("FakeS3: Failed to open file", e);
+            throw new RuntimeException("Failed to read file from FakeS3", e);
+        }
+    }
+
+    private InputStream openObjectStream(Path path, long[] range) throws IOException {
+        MappedByteBuffer mapped = mappedObject(path);
+        if (mapped != null) {
+            ByteBuffer view = mapped.duplicate();
+            if (range != null) {
+                view.position((int) range[0]).limit((int) range[1] + 1);
+            }
+            return new ByteBufferInputStream(view);
+        }
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        long start = range == null ? 0 : range[0];
+        long end = range == null ? channel.size() : range[1] + 1;
+        logger.debug("FakeS3: Retrieved file from {}", path);
+        return new FileChannelInputStream(channel, start, end);
+    }
+
+    private MappedByteBuffer mappedObject(Path path) throws IOException {
+        if (mmapThresholdBytes <= 0) {
+            return null;
+        }
+        synchronized (mappedObjects) {
+            MappedByteBuffer mapped = mappedObjects.get(path);
+            if (mapped != null) {
+                return mapped;
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > mmapThresholdBytes) {
+                return null;
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            synchronized (mappedObjects) {
+                mappedObjects.put(path, mapped);
+            }
+            return mapped;
+        }
+    }
+
+    private void evictMapped(Path path) {
+        synchronized (mappedObjects) {
+            mappedObjects.remove(path);
+        }
+    }
+
+    @Override
+    public HeadObjectResponse headObject(HeadObjectRequest headObjectRequest)
+            throws AwsServiceException, SdkClientException {
+        Path path = resolveObject(headObjectRequest.bucket(), headObjectRequest.key());
+        try {
+            return HeadObjectResponse.builder()
+                    .contentLength(Files.size(path))
+                    .build();
+        } catch (NoSuchFileException e) {
+            throw NoSuchKeyException.builder()
+                    .message("File not found: " + headObjectRequest.key())
+                    .build();
+        } catch (IOException e) {
+            logger.error("FakeS3: Failed to stat file", e);
+            throw new RuntimeException("Failed to read file metadata from FakeS3", e);
         }
     }
 
     @Override
     public DeleteObjectResponse deleteObject(DeleteObjectRequest deleteObjectRequest)
             throws AwsServiceException, SdkClientException {
+        Path path = resolveObject(deleteObjectRequest.bucket(), deleteObjectRequest.key());
         try {
-            String fullPath = buildObjectFullPath(deleteObjectRequest.bucket(), deleteObjectRequest.key());
-            File file = new File(fullPath);
-            
-            if (file.exists()) {
-                boolean deleted = file.delete();
-                logger.debug("FakeS3: Deleted file at {}: {}", fullPath, deleted ? "success" : "failed");
+            evictMapped(path);
+            if (Files.deleteIfExists(path)) {
+                logger.debug("FakeS3: Deleted file at {}", path);
             } else {
-                logger.warn("FakeS3: File does not exist: {}", fullPath);
+                logger.warn("FakeS3: File does not exist: {}", path);
             }
-            
             return DeleteObjectResponse.builder().build();
-        } catch (Exception e) {
+        } catch (IOException e) {
             logger.error("FakeS3: Failed to delete file", e);
             throw new RuntimeException("Failed to delete file from FakeS3", e);
         }
     }
 
-    private String buildObjectFullPath(String bucketName, String key) {
-        return PATH + "/" + bucketName + "/" + key;
+    @Override
+    public DeleteObjectsResponse deleteObjects(DeleteObjectsRequest deleteObjectsRequest)
+            throws AwsServiceException, SdkClientException {
+        String bucket = deleteObjectsRequest.bucket();
+        boolean quiet = Boolean.TRUE.equals(deleteObjectsRequest.delete().quiet());
+        List<DeletedObject> deleted = new ArrayList<>();
+        List<S3Error> errors = new ArrayList<>();
+        for (ObjectIdentifier object : deleteObjectsRequest.delete().objects()) {
+            try {
+                deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(object.key()).build());
+                if (!quiet) {
+                    deleted.add(DeletedObject.builder().key(object.key()).build());
+                }
+            } catch (RuntimeException e) {
+                errors.add(S3Error.builder()
+                        .key(object.key())
+                        .code("InternalError")
+                        .message(e.getMessage())
+                        .build());
+            }
+        }
+        return DeleteObjectsResponse.builder()
+                .deleted(deleted)
+                .errors(errors)
+                .build();
+    }
+
+    /**
+     * Lists objects in key order, like S3. The continuation token is the last
+     * key returned. Directories are visited in key order and only those that
+     * can hold keys after it are entered, so a page costs its own keys plus
+     * the directories on the way to them, not a walk of the whole bucket.
+     */
+    @Override
+    public ListObjectsV2Response listObjectsV2(ListObjectsV2Request listObjectsV2Request)
+            throws AwsServiceException, SdkClientException {
+        Path bucketDir = root.resolve(listObjectsV2Request.bucket()).normalize();
+        String prefix = listObjectsV2Request.prefix() != null ? listObjectsV2Request.prefix() : "";
+        String after = listObjectsV2Request.continuationToken() != null
+                ? listObjectsV2Request.continuationToken()
+                : listObjectsV2Request.startAfter();
+        int maxKeys = listObjectsV2Request.maxKeys() != null ? listObjectsV2Request.maxKeys() : 1000;
+
+        // One key more than the page tells whether another page follows
+        List<S3Object> contents = new ArrayList<>();
+        if (Files.isDirectory(bucketDir)) {
+            try {
+                collectKeys(bucketDir, "", prefix, after, maxKeys + 1, contents);
+            } catch (IOException | UncheckedIOException e) {
+                logger.error("FakeS3: Failed to list files", e);
+                throw new RuntimeException("Failed to list files in FakeS3", e);
+            }
+        }
+
+        boolean truncated = contents.size() > maxKeys;
+        if (truncated) {
+            contents.remove(contents.size() - 1);
+        }
+
+        ListObjectsV2Response.Builder response = ListObjectsV2Response.builder()
+                .name(listObjectsV2Request.bucket())
+                .prefix(listObjectsV2Request.prefix())
+                .maxKeys(maxKeys)
+                .keyCount(contents.size())
+                .contents(contents)
+                .isTruncated(truncated);
+        if (truncated) {
+            response.nextContinuationToken(contents.get(contents.size() - 1).key());
+        }
+        return response.build();
+    }
+
+    /**
+     * Appends the keys under {@code directory} that match {@code prefix} and
+     * sort after {@code after}, in key order, until {@code limit} are
+     * collected. Every key below a directory starts with its name and a
+     * slash, so siblings sort by that and whole subtrees can be skipped.
+     */
+    private static void collectKeys(Path directory, String directoryKey, String prefix, String after,
+                                    int limit, List<S3Object> out) throws IOException {
+        List<Map.Entry<String, Path>> children = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(directory)) {
+            paths.forEach(path -> {
+                String name = path.getFileName().toString();
+                if (name.startsWith(TEMP_PREFIX)) {
+                    return;
+                }
+                if (Files.isDirectory(path)) {
+                    String key = directoryKey + name + "/";
+                    if ((key.startsWith(prefix) || prefix.startsWith(key))
+                            && (after == null || S3Service.compareKeys(key, after) > 0 || after.startsWith(key))) {
+                        children.add(Map.entry(key, path));
+                    }
+                } else if (Files.isRegularFile(path)) {
+                    String key = directoryKey + name;
+                    if (key.startsWith(prefix) && (after == null || S3Service.compareKeys(key, after) > 0)) {
+                        children.add(Map.entry(key, path));
+                    }
+                }
+            });
+        }
+        children.sort(Map.Entry.comparingByKey(S3Service::compareKeys));
+
+        for (Map.Entry<String, Path> child : children) {
+            if (out.size() >= limit) {
+                return;
+            }
+            if (child.getKey().endsWith("/")) {
+                collectKeys(child.getValue(), child.getKey(), prefix, after, limit, out);
+            } else {
+                out.add(toS3Object(child.getKey(), child.getValue()));
+            }
+        }
+    }
+
+    @Override
+    public ListObjectsV2Iterable listObjectsV2Paginator(ListObjectsV2Request listObjectsV2Request)
+            throws AwsServiceException, SdkClientException {
+        return new ListObjectsV2Iterable(this, listObjectsV2Request);
+    }
+
+    private static S3Object toS3Object(String key, Path path) {
+        try {
+            return S3Object.builder()
+                    .key(key)
+                    .size(Files.size(path))
+                    .lastModified(Files.getLastModifiedTime(path).toInstant())
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public CreateMultipartUploadResponse createMultipartUpload(CreateMultipartUploadRequest createMultipartUploadRequest)
+            throws AwsServiceException, SdkClientException {
+        String uploadId = UUID.randomUUID().toString();
+        try {
+            Files.createDirectories(multipartPath(uploadId));
+        } catch (IOException e) {
+            logger.error("FakeS3: Failed to create multipart upload", e);
+            throw new RuntimeException("Failed to create multipart upload in FakeS3", e);
+        }
+        return CreateMultipartUploadResponse.builder()
+                .bucket(createMultipartUploadRequest.bucket())
+                .key(createMultipartUploadRequest.key())
+                .uploadId(uploadId)
+                .build();
+    }
+
+    @Override
+    public UploadPartResponse uploadPart(UploadPartRequest uploadPartRequest, RequestBody requestBody)
+            throws AwsServiceException, SdkClientException {
+        Path uploadDir = multipartPath(uploadPartRequest.uploadId());
+        if (!Files.isDirectory(uploadDir)) {
+            throw NoSuchUploadException.builder()
+                    .message("Upload not found: " + uploadPartRequest.uploadId())
+                    .build();
+        }
+
+        Path partPath = uploadDir.resolve(String.valueOf(uploadPartRequest.partNumber()));
+        try (InputStream inputStream = requestBody.contentStreamProvider().newStream()) {
+            writeAtomically(partPath, channel -> {
+                try (ReadableByteChannel source = Channels.newChannel(inputStream)) {
+                    long position = 0;
+                    long transferred;
+                    while ((transferred = channel.transferFrom(source, position, TRANSFER_CHUNK)) > 0) {
+                        position += transferred;
+                    }
+                }
+            });
+            logger.debug("FakeS3: Stored part {} of upload {}", uploadPartRequest.partNumber(), uploadPartRequest.uploadId());
+            return UploadPartResponse.builder()
+                    .eTag(uploadPartRequest.uploadId() + "-" + uploadPartRequest.partNumber())
+                    .build();
+        } catch (IOException e) {
+            logger.error("FakeS3: Failed to store part", e);
+            throw new RuntimeException("Failed to store part in FakeS3", e);
+        }
+    }
+
+    @Override
+    public CompleteMultipartUploadResponse completeMultipartUpload(
+            CompleteMultipartUploadRequest completeMultipartUploadRequest)
+            throws AwsServiceException, SdkClientException {
+        Path uploadDir = multipartPath(completeMultipartUploadRequest.uploadId());
+        Path target = resolveObject(completeMultipartUploadRequest.bucket(), completeMultipartUploadRequest.key());
+        try {
+            writeAtomically(target, channel -> {
+                for (CompletedPart part : completeMultipartUploadRequest.multipartUpload().parts()) {
+                    try (FileChannel partChannel = FileChannel.open(
+                            uploadDir.resolve(String.valueOf(part.partNumber())), StandardOpenOption.READ)) {
+                        long partSize = partChannel.size();
+                        long copied = 0;
+                        while (copied < partSize) {
+                            copied += partChannel.transferTo(copied, partSize - copied, channel);
+                        }
+                    }
+                }
+            });
+            deleteRecursively(uploadDir);
+        } catch (NoSuchFileException e) {
+            throw NoSuchUploadException.builder()
+                    .message("Upload or part not found: " + completeMultipartUploadRequest.uploadId())
+                    .build();
+        } catch (IOException e) {
+            logger.error("FakeS3: Failed to complete multipart upload", e);
+            throw new RuntimeException("Failed to complete multipart upload in FakeS3", e);
+        }
+
+        logger.debug("FakeS3: Stored file at {}", target);
+        return CompleteMultipartUploadResponse.builder()
+                .bucket(completeMultipartUploadRequest.bucket())
+                .key(completeMultipartUploadRequest.key())
+                .build();
+    }
+
+    @Override
+    public AbortMultipartUploadResponse abortMultipartUpload(AbortMultipartUploadRequest abortMultipartUploadRequest)
+            throws AwsServiceException, SdkClientException {
+        try {
+            deleteRecursively(multipartPath(abortMultipartUploadRequest.uploadId()));
+        } catch (IOException e) {
+            logger.warn("FakeS3: Failed to clean up multipart upload {}", abortMultipartUploadRequest.uploadId(), e);
+        }
+        logger.debug("FakeS3: Aborted multipart upload {}", abortMultipartUploadRequest.uploadId());
+        return AbortMultipartUploadResponse.builder().build();
+    }
+
+    /**
+     * Writes into a temporary file next to the target, applies the fsync policy
+     * and renames it into place, so the target is either absent, the old version
+     * or the complete new version.
+     */
+    private void writeAtomically(Path target, ChannelWriter writer) throws IOException {
+        Path temp = newTempFile(target);
+        try {
+            try (FileChannel channel = FileChannel.open(temp,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                writer.write(channel);
+                if (fsyncPolicy != FsyncPolicy.NEVER) {
+                    channel.force(fsyncPolicy == FsyncPolicy.ALWAYS);
+                }
+            }
+            publish(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static Path newTempFile(Path target) throws IOException {
+        Path parent = target.getParent();
+        Files.createDirectories(parent);
+        return parent.resolve(TEMP_PREFIX + UUID.randomUUID());
+    }
+
+    private void publish(Path temp, Path target) throws IOException {
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        evictMapped(target);
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            fsyncDirectory(target.getParent());
+        }
+    }
+
+    /**
+     * Path of a not yet existing temporary file that {@link #publishObject}
+     * can later move into place as the given object. Used by writers that
+     * fill the file themselves, such as {@link FakeS3AsyncClient}.
+     */
+    Path newTempObject(String bucketName, String key) throws IOException {
+        return newTempFile(resolveObject(bucketName, key));
+    }
+
+    void publishObject(Path temp, String bucketName, String key) throws IOException {
+        if (fsyncPolicy != FsyncPolicy.NEVER) {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(fsyncPolicy == FsyncPolicy.ALWAYS);
+            }
+        }
+        publish(temp, resolveObject(bucketName, key));
+    }
+
+    /**
+     * @throws NoSuchKeyException if the object does not exist
+     */
+    Path objectPath(String bucketName, String key) {
+        Path path = resolveObject(bucketName, key);
+        if (!Files.isRegularFile(path)) {
+            throw NoSuchKeyException.builder()
+                    .message("File not found: " + key)
+                    .build();
+        }
+        return path;
+    }
+
+    private static void fsyncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not every platform allows opening directories; the data itself is already forced
+            logger.debug("FakeS3: Could not fsync directory {}", directory, e);
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            for (Path p : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    /**
+     * Parses a single "bytes=start-end" or "bytes=-suffix" range as S3 does,
+     * returning null when the object should be served whole.
+     */
+    private static long[] parseRange(String range, long size) {
+        if (range == null || !range.startsWith("bytes=") || size == 0) {
+            return null;
+        }
+        String spec = range.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash == -1 || spec.indexOf(',') != -1) {
+            return null;
+        }
+        try {
+            long start;
+            long end;
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1));
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                end = dash == spec.length() - 1
+                        ? size - 1
+                        : Math.min(Long.parseLong(spec.substring(dash + 1)), size - 1);
+            }
+            if (start >= size || start > end) {
+                throw S3Exception.builder()
+                        .statusCode(416)
+                        .message("The requested range is not satisfiable")
+                        .build();
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Path resolveObject(String bucketName, String key) {
+        Path path = root.resolve(bucketName).resolve(key).normalize();
+        if (!path.startsWith(root.resolve(bucketName))) {
+            throw S3Exception.builder()
+                    .statusCode(400)
+                    .message("Invalid object key: " + key)
+                    .build();
+        }
+        return path;
+    }
+
+    private Path multipartPath(String uploadId) {
+        return root.resolve(".multipart").resolve(uploadId);
+    }
+
+    @FunctionalInterface
+    private interface ChannelWriter {
+        void write(FileChannel channel) throws IOException;
     }
 }
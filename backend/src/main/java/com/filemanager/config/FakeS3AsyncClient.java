@@ -0,0 +1,138 @@
+package com.filemanager.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link S3AsyncClient} over the local {@link FakeS3} store. Object bodies are
+ * moved with the SDK's own asynchronous file publisher and writer, so no
+ * thread is held for the length of a transfer; only the final fsync and
+ * rename of an upload run on a small internal pool.
+ */
+public class FakeS3AsyncClient implements S3AsyncClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(FakeS3AsyncClient.class);
+
+    private final FakeS3 store;
+    private final ExecutorService publishExecutor;
+
+    public FakeS3AsyncClient(FakeS3 store) {
+        this.store = store;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.publishExecutor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "fake-s3-publish-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public String serviceName() {
+        return "FakeS3Async";
+    }
+
+    @Override
+    public void close() {
+        publishExecutor.shutdown();
+    }
+
+    @Override
+    public CompletableFuture<PutObjectResponse> putObject(PutObjectRequest putObjectRequest,
+                                                          AsyncRequestBody requestBody) {
+        String bucket = putObjectRequest.bucket();
+        String key = putObjectRequest.key();
+        Path temp;
+        try {
+            temp = store.newTempObject(bucket, key);
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        // The file response transformer is the SDK's non-blocking publisher-to-file writer
+        AsyncResponseTransformer<PutObjectResponse, PutObjectResponse> writer = AsyncResponseTransformer.toFile(temp);
+        CompletableFuture<PutObjectResponse> written = writer.prepare();
+        writer.onResponse(PutObjectResponse.builder().build());
+        writer.onStream(SdkPublisher.adapt(requestBody));
+
+        return written
+                .thenApplyAsync(response -> {
+                    try {
+                        store.publishObject(temp, bucket, key);
+                        logger.debug("FakeS3: Stored file at {}/{}", bucket, key);
+                        return response;
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, publishExecutor)
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        deleteQuietly(temp);
+                    }
+                });
+    }
+
+    @Override
+    public <ReturnT> CompletableFuture<ReturnT> getObject(
+            GetObjectRequest getObjectRequest,
+            AsyncResponseTransformer<GetObjectResponse, ReturnT> asyncResponseTransformer) {
+        CompletableFuture<ReturnT> result = asyncResponseTransformer.prepare();
+        try {
+            Path path = store.objectPath(getObjectRequest.bucket(), getObjectRequest.key());
+            asyncResponseTransformer.onResponse(GetObjectResponse.builder()
+                    .contentLength(Files.size(path))
+                    .build());
+            asyncResponseTransformer.onStream(SdkPublisher.adapt(AsyncRequestBody.fromFile(path)));
+            return result;
+        } catch (IOException | RuntimeException e) {
+            asyncResponseTransformer.exceptionOccurred(e);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<HeadObjectResponse> headObject(HeadObjectRequest headObjectRequest) {
+        try {
+            return CompletableFuture.completedFuture(store.headObject(headObjectRequest));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<DeleteObjectResponse> deleteObject(DeleteObjectRequest deleteObjectRequest) {
+        try {
+            return CompletableFuture.completedFuture(store.deleteObject(deleteObjectRequest));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("FakeS3: Failed to delete temporary file {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.filemanager.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Signs URLs for the local object store, standing in for S3 presigned URLs
+ * when {@code aws.s3.mock} is on. A URL grants exactly one method on one
+ * object until it expires; uploads are also bound to their content length.
+ * The URLs are served by {@code LocalStorageController}.
+ */
+@Component
+public class LocalUrlSigner {
+
+    public static final String PATH = "/local-storage/objects";
+
+    private final String baseUrl;
+    private final SecretKeySpec signingKey;
+
+    public LocalUrlSigner(
+            @Value("${app.base-url:http://localhost:8080}") String baseUrl,
+            @Value("${aws.s3.local.signing-key:${app.jwt.secret-key}}") String signingKey) {
+        this.baseUrl = baseUrl;
+        this.signingKey = new SecretKeySpec(signingKey.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    public String signPut(String bucketName, String key, long contentLength, Instant expiresAt) {
+        String length = String.valueOf(contentLength);
+        long expires = expiresAt.getEpochSecond();
+        return baseUrl + PATH
+                + "?bucket=" + encode(bucketName)
+                + "&key=" + encode(key)
+                + "&length=" + length
+                + "&expires=" + expires
+                + "&signature=" + sign("PUT", bucketName, key, length, expires);
+    }
+
+    /**
+     * @param contentEncoding Content-Encoding of the stored bytes, or null
+     */
+    public String signGet(String bucketName, String key, String fileName, String contentEncoding,
+                          Instant expiresAt) {
+        long expires = expiresAt.getEpochSecond();
+        return baseUrl + PATH
+                + "?bucket=" + encode(bucketName)
+                + "&key=" + encode(key)
+                + "&filename=" + encode(fileName)
+                + (contentEncoding != null ? "&encoding=" + encode(contentEncoding) : "")
+                + "&expires=" + expires
+                + "&signature=" + sign("GET", bucketName, key, getDetail(fileName, contentEncoding), expires);
+    }
+
+    /**
+     * The signed detail of a GET URL, for {@link #verify}.
+     */
+    public static String getDetail(String fileName, String contentEncoding) {
+        return contentEncoding != null ? fileName + "\n" + contentEncoding : fileName;
+    }
+
+    /**
+     * @param detail the content length for PUT, {@link #getDetail} for GET
+     */
+    public boolean verify(String method, String bucketName, String key, String detail,
+                          long expiresEpochSecond, String signature) {
+        if (signature == null || Instant.now().getEpochSecond() > expiresEpochSecond) {
+            return false;
+        }
+        String expected = sign(method, bucketName, key, detail, expiresEpochSecond);
+        return MessageDigest.isEqual(
+                expected.getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private String sign(String method, String bucketName, String key, String detail, long expiresEpochSecond) {
+        String payload = method + "\n" + bucketName + "\n" + key + "\n" + detail + "\n" + expiresEpochSecond;
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(signingKey);
+            return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.filemanager.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Read-through cache for hot objects, in two tiers: small objects in off-heap
+ * buffers, larger ones as files in a local directory. Both tiers are bounded
+ * by total bytes and evicted by Caffeine's W-TinyLFU policy, so a handful of
+ * popular files stay cached while one-off downloads do not displace them.
+ * <p>
+ * Objects are cached as a side effect of a client reading them in full; a
+ * read that is abandoned part-way caches nothing. Hit, miss, eviction and
+ * byte metrics are published under {@code s3.object.cache}.
+ */
+@Component
+public class ObjectCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ObjectCache.class);
+    private static final String METRIC_NAME = "s3.object.cache";
+
+    private record CachedFile(Path path, long size) {
+    }
+
+    private final boolean enabled;
+    private final long memoryMaxObjectBytes;
+    private final long diskMaxObjectBytes;
+    private final Path diskDirectory;
+    private final Cache<String, ByteBuffer> memory;
+    private final Cache<String, CachedFile> disk;
+
+    // Direct memory held by copies still being read, in KB; bounded by the memory tier's budget
+    private final Semaphore inFlightMemory;
+
+    // Bumped on every invalidation; a read that overlaps one does not populate the cache
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ObjectCache(
+            MeterRegistry meterRegistry,
+            @Value("${aws.s3.cache.enabled:true}") boolean enabled,
+            @Value("${aws.s3.cache.memory-max-mb:256}") long memoryMaxMb,
+            @Value("${aws.s3.cache.memory-max-object-kb:1024}") long memoryMaxObjectKb,
+            @Value("${aws.s3.cache.disk-dir:${java.io.tmpdir}/filemanager-object-cache}") String diskDir,
+            @Value("${aws.s3.cache.disk-max-mb:4096}") long diskMaxMb,
+            @Value("${aws.s3.cache.disk-max-object-mb:64}") long diskMaxObjectMb) {
+        this.enabled = enabled;
+        this.memoryMaxObjectBytes = memoryMaxObjectKb * 1024;
+        this.diskMaxObjectBytes = diskMaxMb > 0 ? diskMaxObjectMb * 1024 * 1024 : 0;
+        this.diskDirectory = Paths.get(diskDir).toAbsolutePath().normalize();
+
+        this.inFlightMemory = new Semaphore((int) Math.min(Integer.MAX_VALUE, memoryMaxMb * 1024));
+        this.memory = Caffeine.newBuilder()
+                .maximumWeight(memoryMaxMb * 1024 * 1024)
+                .<String, ByteBuffer>weigher((key, buffer) -> weight(buffer.capacity()))
+                .recordStats()
+                .build();
+        this.disk = Caffeine.newBuilder()
+                .maximumWeight(diskMaxMb * 1024 * 1024)
+                .<String, CachedFile>weigher((key, file) -> weight(file.size()))
+                .removalListener((String key, CachedFile file, RemovalCause cause) -> {
+                    if (file != null) {
+                        deleteQuietly(file.path());
+                    }
+                })
+                .recordStats()
+                .build();
+
+        if (enabled) {
+            prepareDiskDirectory();
+            CaffeineCacheMetrics.monitor(meterRegistry, memory, METRIC_NAME, "tier", "memory");
+            CaffeineCacheMetrics.monitor(meterRegistry, disk, METRIC_NAME, "tier", "disk");
+            Gauge.builder(METRIC_NAME + ".bytes", memory, ObjectCache::weightedSize)
+                    .tag("tier", "memory")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+            Gauge.builder(METRIC_NAME + ".bytes", disk, ObjectCache::weightedSize)
+                    .tag("tier", "disk")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Opens the cached object, or returns null on a miss.
+     */
+    public InputStream open(String bucketName, String key) {
+        return openRange(bucketName, key, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Opens the inclusive byte range {@code [start, end]} of the cached object,
+     * or returns null on a miss.
+     */
+    public InputStream openRange(String bucketName, String key, long start, long end) {
+        if (!enabled) {
+            return null;
+        }
+        String cacheKey = cacheKey(bucketName, key);
+
+        ByteBuffer buffer = memory.getIfPresent(cacheKey);
+        if (buffer != null) {
+            if (start >= buffer.capacity()) {
+                return null;
+            }
+            ByteBuffer view = buffer.duplicate();
+            view.position((int) start);
+            view.limit((int) Math.min(end, buffer.capacity() - 1) + 1);
+            return new ByteBufferInputStream(view);
+        }
+
+        CachedFile file = disk.getIfPresent(cacheKey);
+        if (file != null && start < file.size()) {
+            try {
+                return new FileChannelInputStream(
+                        FileChannel.open(file.path(), StandardOpenOption.READ),
+                        start,
+                        Math.min(end, file.size() - 1) + 1);
+            } catch (NoSuchFileException e) {
+                // Evicted between the lookup and the open
+                return null;
+            } catch (IOException e) {
+                logger.warn("Failed to open cached object {}", file.path(), e);
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Wraps a freshly opened object so that it is cached once the caller has
+     * read it to the end. Objects too large for either tier pass through.
+     */
+    public InputStream readThrough(String bucketName, String key, InputStream source, Long contentLength) {
+        if (!enabled || contentLength == null || contentLength <= 0) {
+            return source;
+        }
+        String cacheKey = cacheKey(bucketName, key);
+        long generation = invalidations.get();
+
+        if (contentLength <= memoryMaxObjectBytes) {
+            // Under a burst of misses the surplus is served uncached rather than copied
+            int permits = weight(contentLength);
+            if (!inFlightMemory.tryAcquire(permits)) {
+                return source;
+            }
+            ByteBuffer copy;
+            try {
+                copy = ByteBuffer.allocateDirect(contentLength.intValue());
+            } catch (OutOfMemoryError e) {
+                inFlightMemory.release(permits);
+                logger.warn("No direct memory for a {} byte cache copy; serving it uncached", contentLength);
+                return source;
+            }
+            return new TeeInputStream(source, contentLength) {
+                @Override
+                void append(byte[] bytes, int offset, int length) {
+                    copy.put(bytes, offset, length);
+                }
+
+                @Override
+                void publish() {
+                    inFlightMemory.release(permits);
+                    if (invalidations.get() == generation) {
+                        memory.put(cacheKey, copy.flip());
+                    }
+                }
+
+                @Override
+                void discard() {
+                    inFlightMemory.release(permits);
+                }
+            };
+        }
+
+        if (contentLength <= diskMaxObjectBytes) {
+            Path temp = diskDirectory.resolve(".tmp-" + UUID.randomUUID());
+            FileChannel channel;
+            try {
+                channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            } catch (IOException e) {
+                logger.warn("Failed to create cache file {}", temp, e);
+                return source;
+            }
+            return new TeeInputStream(source, contentLength) {
+                @Override
+                void append(byte[] bytes, int offset, int length) throws IOException {
+                    ByteBuffer chunk = ByteBuffer.wrap(bytes, offset, length);
+                    while (chunk.hasRemaining()) {
+                        channel.write(chunk);
+                    }
+                }
+
+                @Override
+                void publish() throws IOException {
+                    channel.close();
+                    if (invalidations.get() != generation) {
+                        deleteQuietly(temp);
+                        return;
+                    }
+                    Path target = diskDirectory.resolve(UUID.randomUUID().toString());
+                    try {
+                        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (IOException e) {
+                        deleteQuietly(temp);
+                        throw e;
+                    }
+                    disk.put(cacheKey, new CachedFile(target, contentLength));
+                }
+
+                @Override
+                void discard() throws IOException {
+                    channel.close();
+                    deleteQuietly(temp);
+                }
+            };
+        }
+        return source;
+    }
+
+    public void invalidate(String bucketName, String key) {
+        if (!enabled) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        String cacheKey = cacheKey(bucketName, key);
+        memory.invalidate(cacheKey);
+        disk.invalidate(cacheKey);
+    }
+
+    private void prepareDiskDirectory() {
+        try {
+            Files.createDirectories(diskDirectory);
+            // Entries are not carried over between restarts
+            try (Stream<Path> leftovers = Files.list(diskDirectory)) {
+                leftovers.forEach(ObjectCache::deleteQuietly);
+            }
+            logger.info("Object cache directory: {}", diskDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to prepare object cache directory: " + diskDirectory, e);
+        }
+    }
+
+    private static String cacheKey(String bucketName, String key) {
+        return bucketName + "/" + key;
+    }
+
+    // Weights are ints; count in KB so multi-gigabyte tiers fit
+    private static int weight(long bytes) {
+        return (int) Math.max(1, (bytes + 1023) / 1024);
+    }
+
+    private static double weightedSize(Cache<?, ?> cache) {
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L) * 1024.0)
+                .orElse(0.0);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete cached object {}", path, e);
+        }
+    }
+
+    /**
+     * Copies everything read through it to a sink, publishing the copy once
+     * exactly {@code expectedLength} bytes were read, whether the stream is
+     * then read to its end or closed.
+     */
+    private abstract static class TeeInputStream extends FilterInputStream {
+
+        private final long expectedLength;
+        private long copied;
+        private boolean failed;
+        private boolean done;
+
+        TeeInputStream(InputStream source, long expectedLength) {
+            super(source);
+            this.expectedLength = expectedLength;
+        }
+
+        abstract void append(byte[] bytes, int offset, int length) throws IOException;
+
+        abstract void publish() throws IOException;
+
+        abstract void discard() throws IOException;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int read = super.read(bytes, offset, length);
+            if (read > 0 && !failed && !done) {
+                if (copied + read > expectedLength) {
+                    failed = true;
+                } else {
+                    try {
+                        append(bytes, offset, read);
+                        copied += read;
+                    } catch (IOException | RuntimeException e) {
+                        logger.warn("Failed to cache object; serving it uncached", e);
+                        failed = true;
+                    }
+                }
+            } else if (read == -1) {
+                finish();
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped bytes would leave a hole in the copy
+            failed = true;
+            return super.skip(n);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                finish();
+            } finally {
+                super.close();
+            }
+        }
+
+        private void finish() {
+            if (done) {
+                return;
+            }
+            done = true;
+            try {
+                // Decoders such as InflaterInputStream stop before their source reports the end
+                if (!failed && copied == expectedLength) {
+                    publish();
+                } else {
+                    discard();
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to cache object", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.filemanager.config;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Fixed-size pool of multipart upload part buffers. At most {@code maxBuffers}
+ * buffers of {@code partSize} bytes ever exist, so upload memory is bounded by
+ * {@code partSize * maxBuffers} no matter how many or how large the uploads are.
+ * Buffers are allocated lazily and reused once released.
+ */
+public class PartBufferPool {
+
+    private final int partSize;
+    private final Semaphore permits;
+    private final Queue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+
+    public PartBufferPool(int partSize, int maxBuffers) {
+        if (partSize <= 0 || maxBuffers <= 0) {
+            throw new IllegalArgumentException("Part size and buffer count must be positive");
+        }
+        this.partSize = partSize;
+        this.permits = new Semaphore(maxBuffers, true);
+    }
+
+    public int getPartSize() {
+        return partSize;
+    }
+
+    /**
+     * Blocks until a buffer is available.
+     */
+    public byte[] acquire() throws InterruptedException {
+        permits.acquire();
+        byte[] buffer = buffers.poll();
+        return buffer != null ? buffer : new byte[partSize];
+    }
+
+    public void release(byte[] buffer) {
+        buffers.offer(buffer);
+        permits.release();
+    }
+}
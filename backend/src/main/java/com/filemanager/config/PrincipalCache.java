@@ -0,0 +1,99 @@
+package com.filemanager.config;
+
+import com.filemanager.models.Role;
+import com.filemanager.models.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Authenticated principals by email, so a request carrying a token costs a
+ * map lookup instead of a user query. Entries expire after a short TTL and
+ * are dropped as soon as a change to the user commits, so enabling, locking
+ * or otherwise changing an account takes effect on the next request. Unknown
+ * emails are never cached. Hit, miss and eviction metrics are published
+ * under {@code auth.principal.cache}.
+ * <p>
+ * Only an immutable snapshot of each user is kept, without the password
+ * hash. Every request gets its own detached {@link User} built from it, which
+ * services use for the owner's id and as a reference to the user row; one
+ * that needs the rest of the account loads it.
+ */
+@Component
+public class PrincipalCache {
+
+    private static final String METRIC_NAME = "auth.principal.cache";
+
+    private final UserDetailsService userDetailsService;
+    private final Cache<String, CachedPrincipal> principals;
+
+    private record CachedPrincipal(Long id, String name, String email, Role role,
+                                   boolean enabled, boolean accountNonLocked) {
+
+        static CachedPrincipal of(User user) {
+            return new CachedPrincipal(user.getId(), user.getName(), user.getEmail(), user.getRole(),
+                    user.isEnabled(), user.isAccountNonLocked());
+        }
+
+        User toUser() {
+            User user = new User(id, name, email, null, role, enabled);
+            user.setAccountNonLocked(accountNonLocked);
+            return user;
+        }
+    }
+
+    public PrincipalCache(
+            UserDetailsService userDetailsService,
+            MeterRegistry meterRegistry,
+            @Value("${app.jwt.principal-cache.ttl-seconds:300}") long ttlSeconds,
+            @Value("${app.jwt.principal-cache.max-size:10000}") long maxSize) {
+        this.userDetailsService = userDetailsService;
+        this.principals = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, METRIC_NAME);
+    }
+
+    /**
+     * Returns a new principal for the user, loading their snapshot on a miss;
+     * concurrent misses for the same email share one load.
+     *
+     * @throws UsernameNotFoundException if there is no such user
+     */
+    public User get(String email) {
+        return principals.get(email, this::load).toUser();
+    }
+
+    private CachedPrincipal load(String email) {
+        return CachedPrincipal.of((User) userDetailsService.loadUserByUsername(email));
+    }
+
+    /**
+     * Drops the user's principal once the current transaction commits, or
+     * now if there is none. Evicting after commit keeps a concurrent request
+     * from caching the row as it was before the change.
+     */
+    public void invalidate(String email) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principals.invalidate(email);
+                }
+            });
+        } else {
+            principals.invalidate(email);
+        }
+    }
+}
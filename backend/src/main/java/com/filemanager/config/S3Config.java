@@ -3,8 +3,13 @@ package com.filemanager.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.nio.file.Paths;
 
 @Configuration
 public class S3Config {
@@ -15,13 +20,64 @@ public class S3Config {
     @Value("${aws.s3.mock:true}")
     private boolean mock;
 
+    @Value("${aws.s3.local.root:${user.home}/.filemanager/s3}")
+    private String localRoot;
+
+    @Value("${aws.s3.local.fsync:DATA}")
+    private FakeS3.FsyncPolicy localFsync;
+
+    @Value("${aws.s3.local.mmap-threshold-kb:256}")
+    private long localMmapThresholdKb;
+
+    @Value("${aws.s3.local.mmap-cache-size:128}")
+    private int localMmapCacheSize;
+
+    @Value("${aws.s3.async.max-concurrency:1000}")
+    private int asyncMaxConcurrency;
+
+    @Value("${aws.s3.async.max-pending-connection-acquires:10000}")
+    private int asyncMaxPendingConnectionAcquires;
+
     @Bean
     public S3Client s3Client() {
         if (mock) {
-            return new FakeS3();
+            return new FakeS3(
+                    Paths.get(localRoot),
+                    localFsync,
+                    localMmapThresholdKb * 1024,
+                    localMmapCacheSize);
         }
         return S3Client.builder()
                 .region(Region.of(awsRegion))
                 .build();
     }
+
+    /**
+     * Non-blocking client for {@link AsyncS3Service}. Transfers run on a few
+     * Netty event-loop threads, so concurrency is bounded by the connection
+     * pool rather than by threads.
+     */
+    @Bean(destroyMethod = "close")
+    public S3AsyncClient s3AsyncClient(S3Client s3Client) {
+        if (s3Client instanceof FakeS3 localStore) {
+            return new FakeS3AsyncClient(localStore);
+        }
+        return S3AsyncClient.builder()
+                .region(Region.of(awsRegion))
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(asyncMaxConcurrency)
+                        .maxPendingConnectionAcquires(asyncMaxPendingConnectionAcquires))
+                .build();
+    }
+
+    /**
+     * Credentials are only resolved when a URL is signed, so this bean is
+     * harmless in mock mode, where the local store signs its own URLs.
+     */
+    @Bean(destroyMethod = "close")
+    public S3Presigner s3Presigner() {
+        return S3Presigner.builder()
+                .region(Region.of(awsRegion))
+                .build();
+    }
 }
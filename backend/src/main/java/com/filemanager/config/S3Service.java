@@ -1,27 +1,90 @@
 package com.filemanager.config;
 
+import com.filemanager.dto.PresignedUrlDTO;
+import com.filemanager.models.StorageCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.Delete;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 @Service
 public class S3Service {
 
     private static final Logger logger = LoggerFactory.getLogger(S3Service.class);
+    private static final int DELETE_OBJECTS_BATCH_SIZE = 1000;
     private final S3Client s3Client;
+    private final S3Presigner s3Presigner;
+    private final LocalUrlSigner localUrlSigner;
+    private final ObjectCache objectCache;
+    private final PartBufferPool partBufferPool;
+    private final int compressionLevel;
 
-    public S3Service(S3Client s3Client) {
+    public S3Service(
+            S3Client s3Client,
+            S3Presigner s3Presigner,
+            LocalUrlSigner localUrlSigner,
+            ObjectCache objectCache,
+            @Value("${aws.s3.upload.part-size-mb:8}") int partSizeMb,
+            @Value("${aws.s3.upload.buffer-pool-size:16}") int bufferPoolSize,
+            @Value("${app.file.compression.level:6}") int compressionLevel) {
         this.s3Client = s3Client;
+        this.s3Presigner = s3Presigner;
+        this.localUrlSigner = localUrlSigner;
+        this.objectCache = objectCache;
+        this.partBufferPool = new PartBufferPool(partSizeMb * 1024 * 1024, bufferPoolSize);
+        this.compressionLevel = compressionLevel;
     }
 
     public void putObject(String bucketName, String key, byte[] file) {
@@ -38,32 +101,392 @@ public class S3Service {
         }
     }
 
-    public byte[] getObject(String bucketName, String key) {
+    /**
+     * Streams an object of unknown length to S3 using one pooled part buffer.
+     * Objects that fit in a single part are sent with a plain PUT; anything
+     * larger goes through a multipart upload, one part at a time, so memory
+     * per upload never exceeds the configured part size.
+     */
+    public void putObject(String bucketName, String key, InputStream inputStream) {
+        putObject(bucketName, key, inputStream, (String) null);
+    }
+
+    /**
+     * Streams an object to S3, encoding it with {@code codec} on the way. The
+     * object's Content-Encoding is set accordingly, so presigned downloads are
+     * decoded by the client; reads through this service decode it here.
+     *
+     * @return the number of bytes stored, after encoding
+     */
+    public long putObject(String bucketName, String key, InputStream inputStream, StorageCodec codec) {
+        if (codec == StorageCodec.NONE) {
+            CountingInputStream counted = new CountingInputStream(inputStream);
+            putObject(bucketName, key, counted, (String) null);
+            return counted.getCount();
+        }
+
+        Deflater deflater = new Deflater(compressionLevel);
+        try {
+            CountingInputStream encoded = new CountingInputStream(
+                    new DeflaterInputStream(inputStream, deflater, 64 * 1024));
+            putObject(bucketName, key, encoded, codec.getContentEncoding());
+            return encoded.getCount();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void putObject(String bucketName, String key, InputStream inputStream, String contentEncoding) {
+        byte[] buffer;
+        try {
+            buffer = partBufferPool.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for an upload buffer", e);
+        }
+
+        try {
+            int filled = readFully(inputStream, buffer);
+            if (filled < buffer.length) {
+                PutObjectRequest objectRequest = PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .contentEncoding(contentEncoding)
+                        .build();
+                s3Client.putObject(objectRequest, partBody(buffer, filled));
+            } else {
+                multipartUpload(bucketName, key, contentEncoding, inputStream, buffer, filled);
+            }
+            logger.debug("Successfully uploaded file to S3: {}/{}", bucketName, key);
+        } catch (Exception e) {
+            logger.error("Failed to upload file to S3: {}/{}", bucketName, key, e);
+            throw new RuntimeException("Failed to upload file to S3", e);
+        } finally {
+            partBufferPool.release(buffer);
+        }
+    }
+
+    private void multipartUpload(String bucketName, String key, String contentEncoding,
+                                 InputStream inputStream, byte[] buffer, int filled) throws IOException {
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentEncoding(contentEncoding)
+                .build()).uploadId();
+
+        try {
+            SortedMap<Integer, String> partETags = new TreeMap<>();
+            int partNumber = 1;
+            while (filled > 0) {
+                partETags.put(partNumber, uploadPart(bucketName, key, uploadId, partNumber, partBody(buffer, filled), filled));
+                partNumber++;
+                filled = readFully(inputStream, buffer);
+            }
+            completeMultipartUpload(bucketName, key, uploadId, partETags);
+        } catch (IOException | RuntimeException e) {
+            abortMultipartUpload(bucketName, key, uploadId);
+            throw e;
+        }
+    }
+
+    public String createMultipartUpload(String bucketName, String key) {
+        return s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .build()).uploadId();
+    }
+
+    /**
+     * Streams one part of a multipart upload straight from the given stream.
+     *
+     * @return the part's ETag, needed to complete the upload
+     */
+    public String uploadPart(String bucketName, String key, String uploadId, int partNumber,
+                             InputStream inputStream, long contentLength) {
         try {
-            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+            return uploadPart(bucketName, key, uploadId, partNumber,
+                    RequestBody.fromInputStream(inputStream, contentLength), contentLength);
+        } catch (Exception e) {
+            logger.error("Failed to upload part {} of {} to S3: {}/{}", partNumber, uploadId, bucketName, key, e);
+            throw new RuntimeException("Failed to upload part to S3", e);
+        }
+    }
+
+    private String uploadPart(String bucketName, String key, String uploadId, int partNumber,
+                              RequestBody body, long contentLength) {
+        UploadPartRequest partRequest = UploadPartRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .contentLength(contentLength)
+                .build();
+        UploadPartResponse partResponse = s3Client.uploadPart(partRequest, body);
+        return partResponse.eTag();
+    }
+
+    /**
+     * @param partETags part numbers mapped to the ETags returned by {@link #uploadPart}
+     */
+    public void completeMultipartUpload(String bucketName, String key, String uploadId,
+                                        SortedMap<Integer, String> partETags) {
+        List<CompletedPart> completedParts = new ArrayList<>(partETags.size());
+        partETags.forEach((partNumber, eTag) -> completedParts.add(CompletedPart.builder()
+                .partNumber(partNumber)
+                .eTag(eTag)
+                .build()));
+
+        s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                .build());
+        logger.debug("Completed multipart upload {} to S3: {}/{}", uploadId, bucketName, key);
+    }
+
+    public void abortMultipartUpload(String bucketName, String key, String uploadId) {
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
                     .bucket(bucketName)
                     .key(key)
-                    .build();
+                    .uploadId(uploadId)
+                    .build());
+        } catch (Exception e) {
+            logger.warn("Failed to abort multipart upload {} for {}/{}", uploadId, bucketName, key, e);
+        }
+    }
 
-            ResponseInputStream<GetObjectResponse> response = s3Client.getObject(getObjectRequest);
-            byte[] fileBytes = response.readAllBytes();
-            response.close();
-            
+    // Wraps the buffer without copying; ByteArrayInputStream supports mark/reset so SDK retries still work.
+    private static RequestBody partBody(byte[] buffer, int length) {
+        return RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, length), length);
+    }
+
+    private static int readFully(InputStream inputStream, byte[] buffer) throws IOException {
+        int filled = 0;
+        while (filled < buffer.length) {
+            int read = inputStream.read(buffer, filled, buffer.length - filled);
+            if (read == -1) {
+                break;
+            }
+            filled += read;
+        }
+        return filled;
+    }
+
+    public byte[] getObject(String bucketName, String key) {
+        try (InputStream inputStream = getObjectStream(bucketName, key)) {
+            byte[] fileBytes = inputStream.readAllBytes();
             logger.debug("Successfully retrieved file from S3: {}/{}", bucketName, key);
             return fileBytes;
+        } catch (IOException e) {
+            logger.error("Failed to read file from S3: {}/{}", bucketName, key, e);
+            throw new RuntimeException("Failed to read file from S3", e);
+        }
+    }
+
+    /**
+     * Opens the object for streaming without buffering it; the caller must close
+     * the returned stream to release the underlying connection or file. Hot
+     * objects are served from the {@link ObjectCache}, and a miss that is read
+     * to the end populates it.
+     */
+    public InputStream getObjectStream(String bucketName, String key) {
+        InputStream cached = objectCache.open(bucketName, key);
+        if (cached != null) {
+            return cached;
+        }
+        InputStream inputStream = openObject(bucketName, key, null);
+        // The local store is already on disk; only remote reads are worth caching
+        if (inputStream instanceof ResponseInputStream<?> response
+                && response.response() instanceof GetObjectResponse objectResponse) {
+            return objectCache.readThrough(bucketName, key, inputStream, objectResponse.contentLength());
+        }
+        return inputStream;
+    }
+
+    /**
+     * Opens only the inclusive byte range {@code [start, end]} of the object.
+     * Ranges are served from the cache when the object is in it, but a ranged
+     * miss does not populate it.
+     */
+    public InputStream getObjectStream(String bucketName, String key, long start, long end) {
+        InputStream cached = objectCache.openRange(bucketName, key, start, end);
+        if (cached != null) {
+            return cached;
+        }
+        return openObject(bucketName, key, "bytes=" + start + "-" + end);
+    }
+
+    /**
+     * Opens the object and decodes it from {@code codec}, yielding the
+     * original bytes.
+     */
+    public InputStream getObjectStream(String bucketName, String key, StorageCodec codec) {
+        return decode(getObjectStream(bucketName, key), codec);
+    }
+
+    /**
+     * Opens the inclusive range {@code [start, end]} of the original bytes.
+     * Encoded objects cannot be addressed by offset, so they are decoded from
+     * the start and the leading bytes skipped.
+     */
+    public InputStream getObjectStream(String bucketName, String key, long start, long end, StorageCodec codec) {
+        if (codec == StorageCodec.NONE) {
+            return getObjectStream(bucketName, key, start, end);
+        }
+        InputStream decoded = getObjectStream(bucketName, key, codec);
+        try {
+            decoded.skipNBytes(start);
+            return new BoundedInputStream(decoded, end - start + 1);
+        } catch (IOException e) {
+            closeQuietly(decoded);
+            throw new RuntimeException("Failed to read file from S3", e);
+        }
+    }
+
+    private static InputStream decode(InputStream inputStream, StorageCodec codec) {
+        if (codec == StorageCodec.NONE) {
+            return inputStream;
+        }
+        return new InflaterInputStream(inputStream, new Inflater(), 64 * 1024) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inf.end();
+                }
+            }
+        };
+    }
+
+    private static void closeQuietly(InputStream inputStream) {
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close S3 stream", e);
+        }
+    }
+
+    private InputStream openObject(String bucketName, String key, String range) {
+        try {
+            // The local store hands out channel-backed streams that transfer without a read loop
+            if (s3Client instanceof FakeS3 localStore) {
+                return localStore.getObjectStream(bucketName, key, range);
+            }
+            return s3Client.getObject(GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .range(range)
+                    .build());
         } catch (NoSuchKeyException e) {
             logger.warn("File not found in S3: {}/{}", bucketName, key);
             throw new com.filemanager.exceptions.ResourceNotFoundException(
                     "File not found: " + key);
-        } catch (IOException e) {
-            logger.error("Failed to read file from S3: {}/{}", bucketName, key, e);
-            throw new RuntimeException("Failed to read file from S3", e);
         } catch (Exception e) {
             logger.error("Unexpected error retrieving file from S3: {}/{}", bucketName, key, e);
             throw new RuntimeException("Failed to retrieve file from S3", e);
         }
     }
 
+    /**
+     * @return the object's size in bytes
+     */
+    public long headObject(String bucketName, String key) {
+        try {
+            return s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .build()).contentLength();
+        } catch (NoSuchKeyException e) {
+            throw new com.filemanager.exceptions.ResourceNotFoundException(
+                    "File not found: " + key);
+        } catch (Exception e) {
+            logger.error("Failed to read object metadata from S3: {}/{}", bucketName, key, e);
+            throw new RuntimeException("Failed to read object metadata from S3", e);
+        }
+    }
+
+    /**
+     * Issues a URL the client can PUT the object to directly. Content type and
+     * length are part of the signature, so the client must send exactly the
+     * returned headers.
+     */
+    public PresignedUrlDTO presignPutObject(String bucketName, String key, String contentType,
+                                            long contentLength, Duration ttl) {
+        Instant expiresAt = Instant.now().plus(ttl);
+        if (s3Client instanceof FakeS3) {
+            return new PresignedUrlDTO(
+                    localUrlSigner.signPut(bucketName, key, contentLength, expiresAt),
+                    "PUT",
+                    Map.of(HttpHeaders.CONTENT_TYPE, contentType),
+                    toLocalDateTime(expiresAt));
+        }
+
+        PresignedPutObjectRequest presigned = s3Presigner.presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .putObjectRequest(PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .contentType(contentType)
+                        .contentLength(contentLength)
+                        .build())
+                .build());
+        return new PresignedUrlDTO(
+                presigned.url().toString(),
+                "PUT",
+                signedHeaders(presigned.signedHeaders()),
+                toLocalDateTime(presigned.expiration()));
+    }
+
+    /**
+     * Issues a URL the client can download the object from directly, saved
+     * under {@code fileName}. Encoded objects are served with their
+     * Content-Encoding, which the client decodes.
+     */
+    public PresignedUrlDTO presignGetObject(String bucketName, String key, String fileName,
+                                            String contentType, StorageCodec codec, Duration ttl) {
+        Instant expiresAt = Instant.now().plus(ttl);
+        if (s3Client instanceof FakeS3) {
+            return new PresignedUrlDTO(
+                    localUrlSigner.signGet(bucketName, key, fileName, codec.getContentEncoding(), expiresAt),
+                    "GET",
+                    Map.of(),
+                    toLocalDateTime(expiresAt));
+        }
+
+        PresignedGetObjectRequest presigned = s3Presigner.presignGetObject(GetObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .getObjectRequest(GetObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .responseContentType(contentType)
+                        .responseContentDisposition("attachment; filename=\"" + fileName + "\"")
+                        .build())
+                .build());
+        return new PresignedUrlDTO(
+                presigned.url().toString(),
+                "GET",
+                Map.of(),
+                toLocalDateTime(presigned.expiration()));
+    }
+
+    // The browser sets Host itself; every other signed header must be sent as-is
+    private static Map<String, String> signedHeaders(Map<String, List<String>> signedHeaders) {
+        Map<String, String> headers = new HashMap<>();
+        signedHeaders.forEach((name, values) -> {
+            if (!name.equalsIgnoreCase(HttpHeaders.HOST)) {
+                headers.put(name, String.join(",", values));
+            }
+        });
+        return headers;
+    }
+
+    private static LocalDateTime toLocalDateTime(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
     public void deleteObject(String bucketName, String key) {
         try {
             DeleteObjectRequest deleteObjectRequest = DeleteObjectRequest.builder()
@@ -72,10 +495,169 @@ public class S3Service {
                     .build();
             
             s3Client.deleteObject(deleteObjectRequest);
+            objectCache.invalidate(bucketName, key);
             logger.debug("Successfully deleted file from S3: {}/{}", bucketName, key);
         } catch (Exception e) {
             logger.error("Failed to delete file from S3: {}/{}", bucketName, key, e);
             throw new RuntimeException("Failed to delete file from S3", e);
         }
     }
+
+    /**
+     * Deletes many objects with {@code DeleteObjects}, up to 1000 keys per call.
+     * A batch that fails as a whole counts every one of its keys as failed.
+     *
+     * @return the keys that could not be deleted
+     */
+    public Set<String> deleteObjects(String bucketName, Collection<String> keys) {
+        List<String> distinctKeys = List.copyOf(new LinkedHashSet<>(keys));
+        Set<String> failed = new HashSet<>();
+        for (int from = 0; from < distinctKeys.size(); from += DELETE_OBJECTS_BATCH_SIZE) {
+            List<String> batch = distinctKeys.subList(from, Math.min(from + DELETE_OBJECTS_BATCH_SIZE, distinctKeys.size()));
+            try {
+                DeleteObjectsRequest deleteObjectsRequest = DeleteObjectsRequest.builder()
+                        .bucket(bucketName)
+                        .delete(Delete.builder()
+                                .objects(batch.stream()
+                                        .map(key -> ObjectIdentifier.builder().key(key).build())
+                                        .toList())
+                                .quiet(true)
+                                .build())
+                        .build();
+
+                DeleteObjectsResponse response = s3Client.deleteObjects(deleteObjectsRequest);
+                for (S3Error error : response.errors()) {
+                    logger.warn("Failed to delete file from S3: {}/{}: {} {}",
+                            bucketName, error.key(), error.code(), error.message());
+                    failed.add(error.key());
+                }
+            } catch (Exception e) {
+                logger.error("Failed to delete {} files from S3 bucket {}", batch.size(), bucketName, e);
+                failed.addAll(batch);
+            }
+            for (String key : batch) {
+                objectCache.invalidate(bucketName, key);
+            }
+        }
+        logger.debug("Deleted {} of {} files from S3 bucket {}",
+                distinctKeys.size() - failed.size(), distinctKeys.size(), bucketName);
+        return failed;
+    }
+
+    /**
+     * Lists every object under the prefix in key order. Pages are fetched
+     * lazily while the result is iterated, so only one page is in memory.
+     */
+    public Iterable<S3Object> listObjects(String bucketName, String prefix) {
+        ListObjectsV2Request listObjectsV2Request = ListObjectsV2Request.builder()
+                .bucket(bucketName)
+                .prefix(prefix)
+                .build();
+        return s3Client.listObjectsV2Paginator(listObjectsV2Request).contents();
+    }
+
+    /**
+     * Compares object keys the way S3 lists them: by their UTF-8 bytes, which
+     * is code point order. {@link String#compareTo} differs for characters
+     * outside the BMP.
+     */
+    public static int compareKeys(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) {
+                return Integer.compare(ca, cb);
+            }
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read != -1) {
+                count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+
+    /**
+     * Ends after {@code remaining} bytes, closing the underlying stream with it.
+     */
+    private static final class BoundedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        private BoundedInputStream(InputStream in, long remaining) {
+            super(in);
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read();
+            if (read != -1) {
+                remaining--;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
 }
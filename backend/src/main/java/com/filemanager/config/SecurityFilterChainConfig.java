@@ -53,6 +53,9 @@ public class SecurityFilterChainConfig {
                         .permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/v1/auth/verify-email")
                         .permitAll()
+                        // Signed local-storage URLs authenticate by their signature
+                        .requestMatchers(LocalUrlSigner.PATH)
+                        .permitAll()
                         .anyRequest()
                         .authenticated()
                 )
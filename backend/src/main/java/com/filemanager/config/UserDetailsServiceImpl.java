@@ -16,8 +16,13 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         this.userRepository = userRepository;
     }
 
+    /**
+     * Deliberately not read-only, so the lookup is never routed to a replica:
+     * a user who has just been verified, locked or changed must be seen as
+     * they are now, both at login and when their principal is cached.
+     */
     @Override
-    @Transactional(readOnly = true)
+    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return userRepository.findByEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + username));
@@ -0,0 +1,203 @@
+package com.filemanager.controllers;
+
+import com.filemanager.dto.AsyncFileDownload;
+import com.filemanager.dto.FileDTO;
+import com.filemanager.exceptions.ResourceNotFoundException;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Streams an {@link AsyncFileDownload} with servlet non-blocking I/O. The
+ * request thread returns as soon as the download is started; afterwards a
+ * chunk is only requested from storage when the client connection can take
+ * more, so a slow client applies back-pressure instead of pinning a thread
+ * or filling memory.
+ */
+final class AsyncFileDownloadWriter implements Subscriber<ByteBuffer>, WriteListener, AsyncListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncFileDownloadWriter.class);
+
+    private final AsyncContext asyncContext;
+    private final HttpServletResponse response;
+    private final ServletOutputStream outputStream;
+
+    // Guarded by this; storage callbacks and container callbacks arrive on different threads
+    private Subscription subscription;
+    private ByteBuffer pending;
+    private byte[] copyBuffer;
+    private boolean requested;
+    private boolean completed;
+    private boolean finished;
+
+    private AsyncFileDownloadWriter(AsyncContext asyncContext, HttpServletResponse response) throws IOException {
+        this.asyncContext = asyncContext;
+        this.response = response;
+        this.outputStream = response.getOutputStream();
+    }
+
+    static void start(AsyncFileDownload download, HttpServletRequest request,
+                      HttpServletResponse response, long timeoutMillis) throws IOException {
+        AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(timeoutMillis);
+        AsyncFileDownloadWriter writer = new AsyncFileDownloadWriter(asyncContext, response);
+        asyncContext.addListener(writer);
+        writer.outputStream.setWriteListener(writer);
+
+        download.content().get().whenComplete((publisher, error) -> {
+            if (error != null) {
+                writer.fail(error);
+                return;
+            }
+            writer.writeHeaders(download);
+            publisher.subscribe(writer);
+        });
+    }
+
+    private void writeHeaders(AsyncFileDownload download) {
+        FileDTO file = download.file();
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(file.contentType());
+        response.setContentLengthLong(download.contentLength());
+        response.setHeader(HttpHeaders.ETAG, download.eTag());
+        if (download.contentEncoding() != null) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, download.contentEncoding());
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + file.originalFileName() + "\"");
+    }
+
+    @Override
+    public synchronized void onSubscribe(Subscription subscription) {
+        this.subscription = subscription;
+        drain();
+    }
+
+    @Override
+    public synchronized void onNext(ByteBuffer buffer) {
+        requested = false;
+        pending = buffer;
+        drain();
+    }
+
+    @Override
+    public synchronized void onComplete() {
+        completed = true;
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        fail(error);
+    }
+
+    @Override
+    public synchronized void onWritePossible() {
+        drain();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        fail(event.getThrowable());
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        logger.warn("Async download timed out");
+        fail(null);
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+
+    /**
+     * Writes while the connection is ready and asks storage for the next chunk
+     * only when nothing is left to write. When {@link ServletOutputStream#isReady}
+     * returns false the container calls {@link #onWritePossible} later.
+     */
+    private void drain() {
+        try {
+            while (!finished && outputStream.isReady()) {
+                if (pending != null) {
+                    write(pending);
+                    pending = null;
+                } else if (completed) {
+                    finish();
+                } else {
+                    if (subscription != null && !requested) {
+                        requested = true;
+                        subscription.request(1);
+                    }
+                    return;
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            fail(e);
+        }
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        if (buffer.hasArray()) {
+            outputStream.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            return;
+        }
+        int length = buffer.remaining();
+        if (copyBuffer == null || copyBuffer.length < length) {
+            copyBuffer = new byte[length];
+        }
+        buffer.get(copyBuffer, 0, length);
+        outputStream.write(copyBuffer, 0, length);
+    }
+
+    private synchronized void fail(Throwable error) {
+        if (finished) {
+            return;
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause()
+                : error;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        if (!response.isCommitted()) {
+            response.setStatus(cause instanceof ResourceNotFoundException
+                    ? HttpStatus.NOT_FOUND.value()
+                    : HttpStatus.INTERNAL_SERVER_ERROR.value());
+        } else if (cause != null) {
+            // Headers are already out; the short body tells the client the download failed
+            logger.warn("Async download aborted after the response was committed", cause);
+        }
+        if (cause != null && !(cause instanceof ResourceNotFoundException)) {
+            logger.error("Async download failed", cause);
+        }
+        finish();
+    }
+
+    private void finish() {
+        finished = true;
+        try {
+            asyncContext.complete();
+        } catch (IllegalStateException e) {
+            // Already completed by the container after a timeout or client abort
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.filemanager.controllers;
+
+import com.filemanager.dto.FileDTO;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+
+/**
+ * Weak entity tags for file metadata. A file's metadata changes only when its
+ * row does, so its id and {@code updatedAt} identify a version; a listing is
+ * identified by the versions it contains plus anything that shifts its window,
+ * such as the total count after a delete.
+ */
+final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    static String weak(FileDTO file) {
+        return "W/\"" + file.id() + "-" + epochMillis(file.updatedAt()) + "\"";
+    }
+
+    static String weak(Collection<FileDTO> files, long totalElements) {
+        StringBuilder versions = new StringBuilder().append(totalElements);
+        for (FileDTO file : files) {
+            versions.append(';').append(file.id()).append('-').append(epochMillis(file.updatedAt()));
+        }
+        return "W/\"" + DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    static long epochMillis(LocalDateTime dateTime) {
+        return dateTime == null ? 0 : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -1,17 +1,43 @@
 package com.filemanager.controllers;
 
+import com.filemanager.services.BatchUploadService;
+import com.filemanager.services.BulkDeleteService;
+import com.filemanager.services.FileArchive;
+import com.filemanager.services.FileArchiveService;
+import com.filemanager.services.FileExportService;
+import com.filemanager.services.FileSearchService;
 import com.filemanager.services.FileService;
+import com.filemanager.services.FolderService;
 import com.filemanager.models.User;
+import com.filemanager.dto.ArchiveRequest;
+import com.filemanager.dto.AsyncFileDownload;
+import com.filemanager.dto.BatchUploadResponse;
+import com.filemanager.dto.BulkDeleteRequest;
+import com.filemanager.dto.BulkDeleteResponse;
+import com.filemanager.dto.FileCursorPage;
 import com.filemanager.dto.FileDTO;
+import com.filemanager.dto.FileDownload;
+import com.filemanager.dto.FileFromHashRequest;
 import com.filemanager.dto.FileUploadResponse;
+import com.filemanager.dto.MoveFileRequest;
+import com.filemanager.dto.PresignedUploadCompleteRequest;
+import com.filemanager.dto.PresignedUploadRequest;
+import com.filemanager.dto.PresignedUploadResponse;
+import com.filemanager.dto.PresignedUrlDTO;
+import com.filemanager.dto.StorageUsageDTO;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -19,19 +45,46 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/v1/files")
 public class FileController {
 
     private final FileService fileService;
+    private final BatchUploadService batchUploadService;
+    private final BulkDeleteService bulkDeleteService;
+    private final FileArchiveService fileArchiveService;
+    private final FileExportService fileExportService;
+    private final FileSearchService fileSearchService;
+    private final FolderService folderService;
+    private final long asyncDownloadTimeoutMillis;
 
-    public FileController(FileService fileService) {
+    public FileController(
+            FileService fileService,
+            BatchUploadService batchUploadService,
+            BulkDeleteService bulkDeleteService,
+            FileArchiveService fileArchiveService,
+            FileExportService fileExportService,
+            FileSearchService fileSearchService,
+            FolderService folderService,
+            @Value("${app.async.download-timeout-minutes:60}") long asyncDownloadTimeoutMinutes) {
         this.fileService = fileService;
+        this.batchUploadService = batchUploadService;
+        this.bulkDeleteService = bulkDeleteService;
+        this.fileArchiveService = fileArchiveService;
+        this.fileExportService = fileExportService;
+        this.fileSearchService = fileSearchService;
+        this.folderService = folderService;
+        this.asyncDownloadTimeoutMillis = TimeUnit.MINUTES.toMillis(asyncDownloadTimeoutMinutes);
     }
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -44,6 +97,53 @@ public class FileController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Same as {@link #uploadFile}, but the request thread is released while the
+     * file is sent to storage.
+     */
+    @PostMapping(value = "/async", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('USER')")
+    public CompletableFuture<ResponseEntity<FileUploadResponse>> uploadFileAsync(
+            @RequestParam("file") MultipartFile file,
+            @AuthenticationPrincipal User user) {
+        return fileService.uploadFileAsync(file, user)
+                .thenApply(response -> ResponseEntity.status(HttpStatus.CREATED).body(response));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<BatchUploadResponse> uploadFiles(
+            @RequestParam("files") List<MultipartFile> files,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(batchUploadService.uploadFiles(files, user));
+    }
+
+    @PostMapping("/from-hash")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<FileUploadResponse> createFileFromHash(
+            @Valid @RequestBody FileFromHashRequest request,
+            @AuthenticationPrincipal User user) {
+        FileUploadResponse response = fileService.createFileFromHash(request, user);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @PostMapping("/presigned-uploads")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<PresignedUploadResponse> createPresignedUpload(
+            @Valid @RequestBody PresignedUploadRequest request,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(fileService.createPresignedUpload(request, user));
+    }
+
+    @PostMapping("/presigned-uploads/complete")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<FileUploadResponse> completePresignedUpload(
+            @Valid @RequestBody PresignedUploadCompleteRequest request,
+            @AuthenticationPrincipal User user) {
+        FileUploadResponse response = fileService.completePresignedUpload(request, user);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
     @GetMapping
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<Page<FileDTO>> getUserFiles(
@@ -59,14 +159,70 @@ public class FileController {
         Pageable pageable = PageRequest.of(page, size, sort);
         
         Page<FileDTO> files = fileService.getUserFiles(user, pageable);
-        return ResponseEntity.ok(files);
+        // A matching If-None-Match is answered with 304 by Spring once the tag is set
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(EntityTags.weak(files.getContent(), files.getTotalElements()))
+                .body(files);
+    }
+
+    /**
+     * Cursor-paged listing for deep or large collections: pass the returned
+     * {@code nextCursor} back to get the following page.
+     */
+    @GetMapping("/cursor")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<FileCursorPage> getUserFilesAfter(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "DESC") String sortDir,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @AuthenticationPrincipal User user) {
+        FileCursorPage files = fileService.getUserFilesAfter(
+                user, cursor, size, sortBy, sortDir, includeTotal);
+        long total = files.totalElements() == null ? -1 : files.totalElements();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(EntityTags.weak(files.content(), total))
+                .body(files);
+    }
+
+    /**
+     * Searches file names; see {@link FileSearchService}. Pass the returned
+     * {@code nextCursor} back to get the following page.
+     */
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<FileCursorPage> searchFiles(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String prefix,
+            @RequestParam(required = false) String extension,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            @AuthenticationPrincipal User user) {
+        FileCursorPage files = fileSearchService.search(user, q, prefix, extension, cursor, size);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(EntityTags.weak(files.content(), -1))
+                .body(files);
     }
 
+    /**
+     * Streams every file as it is read from the database: a JSON array by
+     * default, or newline-delimited JSON when the client accepts
+     * {@code application/x-ndjson}.
+     */
     @GetMapping("/all")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<List<FileDTO>> getAllUserFiles(@AuthenticationPrincipal User user) {
-        List<FileDTO> files = fileService.getAllUserFiles(user);
-        return ResponseEntity.ok(files);
+    public void getAllUserFiles(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @AuthenticationPrincipal User user,
+            HttpServletResponse response) throws IOException {
+        boolean ndjson = accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setContentType(ndjson ? MediaType.APPLICATION_NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().cachePrivate().getHeaderValue());
+        fileExportService.writeAll(user, response.getOutputStream(), ndjson);
     }
 
     @GetMapping("/{fileId}")
@@ -75,26 +231,93 @@ public class FileController {
             @PathVariable Long fileId,
             @AuthenticationPrincipal User user) {
         FileDTO file = fileService.getFileById(fileId, user);
-        return ResponseEntity.ok(file);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(EntityTags.weak(file))
+                .lastModified(EntityTags.epochMillis(file.updatedAt()))
+                .body(file);
     }
 
     @GetMapping("/{fileId}/download")
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<Resource> downloadFile(
             @PathVariable Long fileId,
+            @RequestHeader HttpHeaders headers,
+            WebRequest webRequest,
             @AuthenticationPrincipal User user) {
-        
-        FileDTO fileDTO = fileService.getFileById(fileId, user);
-        byte[] fileData = fileService.downloadFile(fileId, user);
-        
-        ByteArrayResource resource = new ByteArrayResource(fileData);
-        
+        FileDownload download = fileService.downloadFile(fileId, user);
+        // Answered from metadata alone; storage is not touched for a 304
+        if (webRequest.checkNotModified(download.eTag(), FileDownloadResponses.lastModified(download.file()))) {
+            return null;
+        }
+        return FileDownloadResponses.build(download, headers);
+    }
+
+    /**
+     * Streams the whole file with non-blocking I/O; no thread is held while
+     * bytes move between storage and the client.
+     */
+    @GetMapping("/{fileId}/download/async")
+    @PreAuthorize("hasRole('USER')")
+    public void downloadFileAsync(
+            @PathVariable Long fileId,
+            @AuthenticationPrincipal User user,
+            HttpServletRequest request,
+            HttpServletResponse response,
+            WebRequest webRequest) throws IOException {
+        AsyncFileDownload download = fileService.downloadFileAsync(fileId, user);
+        if (webRequest.checkNotModified(download.eTag(), FileDownloadResponses.lastModified(download.file()))) {
+            return;
+        }
+        AsyncFileDownloadWriter.start(download, request, response, asyncDownloadTimeoutMillis);
+    }
+
+    /**
+     * Streams the files as one ZIP archive, built while it is sent.
+     */
+    @PostMapping("/archive")
+    @PreAuthorize("hasRole('USER')")
+    public void downloadArchive(
+            @Valid @RequestBody ArchiveRequest request,
+            @AuthenticationPrincipal User user,
+            HttpServletResponse response) throws IOException {
+        FileArchive archive = fileArchiveService.prepareArchive(request.fileIds(), user);
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"files.zip\"");
+        archive.writeTo(response.getOutputStream());
+    }
+
+    /**
+     * Thumbnails never change for a file, so clients may cache them for good.
+     */
+    @GetMapping("/{fileId}/thumbnail")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<Resource> getThumbnail(
+            @PathVariable Long fileId,
+            @RequestParam(defaultValue = "256") @Min(1) @Max(4096) int size,
+            @AuthenticationPrincipal User user) {
+        InputStream thumbnail = fileService.openThumbnail(fileId, user, size);
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, 
-                        "attachment; filename=\"" + fileDTO.originalFileName() + "\"")
-                .contentType(MediaType.parseMediaType(fileDTO.contentType()))
-                .contentLength(fileData.length)
-                .body(resource);
+                .header(HttpHeaders.CACHE_CONTROL, "private, max-age=31536000, immutable")
+                .contentType(MediaType.IMAGE_JPEG)
+                .body(new InputStreamResource(thumbnail));
+    }
+
+    @GetMapping("/{fileId}/download-url")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<PresignedUrlDTO> getDownloadUrl(
+            @PathVariable Long fileId,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(fileService.getDownloadUrl(fileId, user));
+    }
+
+    @PutMapping("/{fileId}/folder")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<FileDTO> moveFile(
+            @PathVariable Long fileId,
+            @RequestBody MoveFileRequest request,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(folderService.moveFile(fileId, request.folderId(), user));
     }
 
     @DeleteMapping("/{fileId}")
@@ -106,16 +329,24 @@ public class FileController {
         return ResponseEntity.ok(Map.of("message", "File deleted successfully"));
     }
 
+    @PostMapping("/bulk-delete")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<BulkDeleteResponse> deleteFiles(
+            @Valid @RequestBody BulkDeleteRequest request,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(bulkDeleteService.deleteFiles(request.fileIds(), user));
+    }
+
     @GetMapping("/stats")
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<Map<String, Object>> getFileStats(@AuthenticationPrincipal User user) {
-        long fileCount = fileService.getUserFileCount(user);
-        long totalSize = fileService.getUserTotalFileSize(user);
+        StorageUsageDTO usage = fileService.getStorageUsage(user);
         
         return ResponseEntity.ok(Map.of(
-                "fileCount", fileCount,
-                "totalSize", totalSize,
-                "totalSizeMB", String.format("%.2f", totalSize / (1024.0 * 1024.0))
+                "fileCount", usage.fileCount(),
+                "totalSize", usage.totalSize(),
+                "totalSizeMB", String.format("%.2f", usage.totalSize() / (1024.0 * 1024.0)),
+                "quotaSize", usage.quotaSize()
         ));
     }
 }
@@ -0,0 +1,229 @@
+package com.filemanager.controllers;
+
+import com.filemanager.dto.FileDTO;
+import com.filemanager.dto.FileDownload;
+import com.filemanager.services.FileContent;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Builds download responses, honouring {@code Range} and {@code If-Range}.
+ * Every satisfiable range becomes its own ranged storage read, so seeking in a
+ * file only costs the bytes requested. Multiple ranges are sent as
+ * {@code multipart/byteranges} with the parts opened one after another.
+ * Conditional requests ({@code If-None-Match}, {@code If-Modified-Since}) are
+ * expected to have been answered before this is called.
+ */
+final class FileDownloadResponses {
+
+    private static final int MAX_RANGES = 16;
+
+    private FileDownloadResponses() {
+    }
+
+    static ResponseEntity<Resource> build(FileDownload download, HttpHeaders requestHeaders) {
+        FileDTO file = download.file();
+        long length = file.fileSize();
+        long lastModified = lastModified(file);
+
+        List<long[]> ranges = requestedRanges(requestHeaders, length, download.eTag(), lastModified);
+        if (ranges == null) {
+            return headers(ResponseEntity.ok(), download, lastModified)
+                    .contentLength(length)
+                    .body(new InputStreamResource(download.content().openStream()));
+        }
+        if (ranges.isEmpty()) {
+            return headers(ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE), download, lastModified)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                    .build();
+        }
+        if (ranges.size() == 1) {
+            long start = ranges.get(0)[0];
+            long end = ranges.get(0)[1];
+            return headers(ResponseEntity.status(HttpStatus.PARTIAL_CONTENT), download, lastModified)
+                    .header(HttpHeaders.CONTENT_RANGE, contentRange(start, end, length))
+                    .contentLength(end - start + 1)
+                    .body(new InputStreamResource(download.content().openRange(start, end)));
+        }
+        return multipartRanges(download, ranges, lastModified);
+    }
+
+    private static ResponseEntity<Resource> multipartRanges(
+            FileDownload download, List<long[]> ranges, long lastModified) {
+        FileDTO file = download.file();
+        FileContent content = download.content();
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+
+        List<Supplier<InputStream>> parts = new ArrayList<>();
+        long contentLength = 0;
+        for (long[] range : ranges) {
+            byte[] partHeader = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + file.contentType() + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(range[0], range[1], file.fileSize())
+                    + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+            parts.add(() -> new ByteArrayInputStream(partHeader));
+            parts.add(() -> content.openRange(range[0], range[1]));
+            contentLength += partHeader.length + range[1] - range[0] + 1;
+        }
+        byte[] closing = ("\r\n--" + boundary + "--").getBytes(StandardCharsets.US_ASCII);
+        parts.add(() -> new ByteArrayInputStream(closing));
+        contentLength += closing.length;
+
+        return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .eTag(download.eTag())
+                .lastModified(lastModified)
+                .contentType(MediaType.parseMediaType("multipart/byteranges; boundary=" + boundary))
+                .contentLength(contentLength)
+                .body(new InputStreamResource(new ConcatenatedInputStream(parts.iterator())));
+    }
+
+    /**
+     * Returns null when the whole file should be sent, an empty list when no
+     * requested range is satisfiable, otherwise the inclusive ranges to send.
+     */
+    private static List<long[]> requestedRanges(HttpHeaders requestHeaders, long length,
+                                                String eTag, long lastModified) {
+        if (requestHeaders.getFirst(HttpHeaders.RANGE) == null
+                || !ifRangeMatches(requestHeaders.getFirst(HttpHeaders.IF_RANGE), eTag, lastModified)) {
+            return null;
+        }
+
+        List<HttpRange> httpRanges;
+        try {
+            httpRanges = requestHeaders.getRange();
+        } catch (IllegalArgumentException e) {
+            // Malformed Range headers are ignored, as RFC 9110 allows
+            return null;
+        }
+        if (httpRanges.isEmpty() || httpRanges.size() > MAX_RANGES) {
+            return null;
+        }
+
+        List<long[]> ranges = new ArrayList<>();
+        long total = 0;
+        for (HttpRange httpRange : httpRanges) {
+            long start = httpRange.getRangeStart(length);
+            long end = httpRange.getRangeEnd(length);
+            if (start < length && start <= end) {
+                ranges.add(new long[]{start, end});
+                total += end - start + 1;
+            }
+        }
+        // Overlapping ranges adding up to more than the file are cheaper to answer in full
+        return total > length ? null : ranges;
+    }
+
+    /**
+     * If-Range needs a strong match: the entity tag itself, never a weak one.
+     */
+    private static boolean ifRangeMatches(String ifRange, String eTag, long lastModified) {
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(eTag);
+        }
+        if (ifRange.startsWith("W/")) {
+            return false;
+        }
+        try {
+            long date = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME)
+                    .toInstant().toEpochMilli();
+            return date == lastModified;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static ResponseEntity.BodyBuilder headers(
+            ResponseEntity.BodyBuilder builder, FileDownload download, long lastModified) {
+        FileDTO file = download.file();
+        return builder
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + file.originalFileName() + "\"")
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .eTag(download.eTag())
+                .lastModified(lastModified)
+                .contentType(MediaType.parseMediaType(file.contentType()));
+    }
+
+    // HTTP dates only carry whole seconds; content never changes after upload
+    static long lastModified(FileDTO file) {
+        return file.createdAt()
+                .atZone(ZoneId.systemDefault())
+                .toInstant()
+                .truncatedTo(ChronoUnit.SECONDS)
+                .toEpochMilli();
+    }
+
+    private static String contentRange(long start, long end, long length) {
+        return "bytes " + start + "-" + end + "/" + length;
+    }
+
+    /**
+     * Reads the given streams back to back, opening each one only when the
+     * previous one is exhausted.
+     */
+    private static final class ConcatenatedInputStream extends InputStream {
+
+        private final Iterator<Supplier<InputStream>> parts;
+        private InputStream current;
+
+        private ConcatenatedInputStream(Iterator<Supplier<InputStream>> parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            while (true) {
+                if (current == null) {
+                    if (!parts.hasNext()) {
+                        return -1;
+                    }
+                    current = parts.next().get();
+                }
+                int read = current.read(buffer, offset, length);
+                if (read != -1) {
+                    return read;
+                }
+                current.close();
+                current = null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (current != null) {
+                current.close();
+                current = null;
+            }
+        }
+    }
+}
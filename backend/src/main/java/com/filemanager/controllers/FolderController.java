@@ -0,0 +1,113 @@
+package com.filemanager.controllers;
+
+import com.filemanager.dto.CreateFolderRequest;
+import com.filemanager.dto.FileCursorPage;
+import com.filemanager.dto.FolderDTO;
+import com.filemanager.dto.FolderUsageDTO;
+import com.filemanager.dto.MoveFolderRequest;
+import com.filemanager.dto.RenameFolderRequest;
+import com.filemanager.models.User;
+import com.filemanager.services.FolderService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/folders")
+public class FolderController {
+
+    private final FolderService folderService;
+
+    public FolderController(FolderService folderService) {
+        this.folderService = folderService;
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<FolderDTO> createFolder(
+            @Valid @RequestBody CreateFolderRequest request,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(folderService.createFolder(request, user));
+    }
+
+    /**
+     * Subfolders of {@code parentId}, or the top-level folders without it.
+     */
+    @GetMapping
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<List<FolderDTO>> getSubfolders(
+            @RequestParam(required = false) Long parentId,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(folderService.getSubfolders(parentId, user));
+    }
+
+    /**
+     * Files in {@code folderId}, or the top-level files without it, in name
+     * order. Pass the returned {@code nextCursor} back for the next page.
+     */
+    @GetMapping("/files")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<FileCursorPage> getFiles(
+            @RequestParam(required = false) Long folderId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            @AuthenticationPrincipal User user) {
+        FileCursorPage files = folderService.getFiles(folderId, cursor, size, user);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(EntityTags.weak(files.content(), -1))
+                .body(files);
+    }
+
+    @GetMapping("/{folderId}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<FolderDTO> getFolder(
+            @PathVariable Long folderId,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(folderService.getFolder(folderId, user));
+    }
+
+    @GetMapping("/{folderId}/usage")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<FolderUsageDTO> getUsage(
+            @PathVariable Long folderId,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(folderService.getUsage(folderId, user));
+    }
+
+    @PatchMapping("/{folderId}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<FolderDTO> renameFolder(
+            @PathVariable Long folderId,
+            @Valid @RequestBody RenameFolderRequest request,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(folderService.renameFolder(folderId, request.name(), user));
+    }
+
+    @PostMapping("/{folderId}/move")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<FolderDTO> moveFolder(
+            @PathVariable Long folderId,
+            @RequestBody MoveFolderRequest request,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(folderService.moveFolder(folderId, request.parentId(), user));
+    }
+
+    @DeleteMapping("/{folderId}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<Map<String, String>> deleteFolder(
+            @PathVariable Long folderId,
+            @AuthenticationPrincipal User user) {
+        folderService.deleteFolder(folderId, user);
+        return ResponseEntity.ok(Map.of("message", "Folder deleted successfully"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.filemanager.controllers;
+
+import com.filemanager.config.LocalUrlSigner;
+import com.filemanager.config.S3Service;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Serves the signed URLs issued for the local object store, playing the part
+ * of S3 for presigned uploads and downloads. Requests carry no JWT; the URL
+ * signature is the only credential.
+ */
+@RestController
+@ConditionalOnProperty(name = "aws.s3.mock", havingValue = "true", matchIfMissing = true)
+public class LocalStorageController {
+
+    private final LocalUrlSigner localUrlSigner;
+    private final S3Service s3Service;
+
+    public LocalStorageController(LocalUrlSigner localUrlSigner, S3Service s3Service) {
+        this.localUrlSigner = localUrlSigner;
+        this.s3Service = s3Service;
+    }
+
+    @PutMapping(LocalUrlSigner.PATH)
+    public ResponseEntity<Void> putObject(
+            @RequestParam String bucket,
+            @RequestParam String key,
+            @RequestParam long length,
+            @RequestParam long expires,
+            @RequestParam String signature,
+            HttpServletRequest request) throws IOException {
+        if (!localUrlSigner.verify("PUT", bucket, key, String.valueOf(length), expires, signature)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (request.getContentLengthLong() != length) {
+            return ResponseEntity.badRequest().build();
+        }
+        try (InputStream inputStream = request.getInputStream()) {
+            s3Service.putObject(bucket, key, inputStream);
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    @GetMapping(LocalUrlSigner.PATH)
+    public ResponseEntity<Resource> getObject(
+            @RequestParam String bucket,
+            @RequestParam String key,
+            @RequestParam String filename,
+            @RequestParam(required = false) String encoding,
+            @RequestParam long expires,
+            @RequestParam String signature) {
+        String detail = LocalUrlSigner.getDetail(filename, encoding);
+        if (!localUrlSigner.verify("GET", bucket, key, detail, expires, signature)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        long length = s3Service.headObject(bucket, key);
+        MediaType contentType = MediaTypeFactory.getMediaType(filename)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (encoding != null) {
+            // Stored bytes are sent encoded, as S3 does for objects with a Content-Encoding
+            builder.header(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+        return builder
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(contentType)
+                .contentLength(length)
+                .body(new InputStreamResource(s3Service.getObjectStream(bucket, key)));
+    }
+}
@@ -0,0 +1,36 @@
+package com.filemanager.controllers;
+
+import com.filemanager.dto.ReconciliationReport;
+import com.filemanager.services.StorageReconciliationService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/admin/storage")
+public class StorageAdminController {
+
+    private final StorageReconciliationService storageReconciliationService;
+
+    public StorageAdminController(StorageReconciliationService storageReconciliationService) {
+        this.storageReconciliationService = storageReconciliationService;
+    }
+
+    /**
+     * Runs a reconciliation pass now and returns its report. With
+     * {@code repair=true} orphaned objects are queued for deletion.
+     */
+    @PostMapping("/reconciliation")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReconciliationReport> reconcile(
+            @RequestParam(defaultValue = "false") boolean repair) {
+        return ResponseEntity.ok(storageReconciliationService.reconcile(repair));
+    }
+
+    @GetMapping("/reconciliation")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReconciliationReport> getLastReconciliation() {
+        ReconciliationReport report = storageReconciliationService.getLastReport();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.filemanager.controllers;
+
+import com.filemanager.dto.FileUploadResponse;
+import com.filemanager.dto.UploadSessionDTO;
+import com.filemanager.dto.UploadSessionRequest;
+import com.filemanager.models.User;
+import com.filemanager.services.UploadSessionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/files/uploads")
+public class UploadSessionController {
+
+    private final UploadSessionService uploadSessionService;
+
+    public UploadSessionController(UploadSessionService uploadSessionService) {
+        this.uploadSessionService = uploadSessionService;
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<UploadSessionDTO> createSession(
+            @Valid @RequestBody UploadSessionRequest request,
+            @AuthenticationPrincipal User user) {
+        UploadSessionDTO session = uploadSessionService.createSession(request, user);
+        return ResponseEntity.status(HttpStatus.CREATED).body(session);
+    }
+
+    @GetMapping("/{sessionId}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<UploadSessionDTO> getSession(
+            @PathVariable String sessionId,
+            @AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(uploadSessionService.getSession(sessionId, user));
+    }
+
+    /**
+     * Takes the raw chunk bytes as the request body; the body is streamed to
+     * storage, never read into memory.
+     */
+    @PutMapping(value = "/{sessionId}/chunks/{chunkIndex}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<Map<String, String>> uploadChunk(
+            @PathVariable String sessionId,
+            @PathVariable int chunkIndex,
+            HttpServletRequest request,
+            @AuthenticationPrincipal User user) throws IOException {
+        long contentLength = request.getContentLengthLong();
+        if (contentLength < 0) {
+            throw new IllegalArgumentException("Content-Length is required");
+        }
+        try (InputStream inputStream = request.getInputStream()) {
+            uploadSessionService.uploadChunk(sessionId, chunkIndex, inputStream, contentLength, user);
+        }
+        return ResponseEntity.ok(Map.of("message", "Chunk " + chunkIndex + " received"));
+    }
+
+    @PostMapping("/{sessionId}/complete")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<FileUploadResponse> completeSession(
+            @PathVariable String sessionId,
+            @AuthenticationPrincipal User user) {
+        FileUploadResponse response = uploadSessionService.completeSession(sessionId, user);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @DeleteMapping("/{sessionId}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<Map<String, String>> abortSession(
+            @PathVariable String sessionId,
+            @AuthenticationPrincipal User user) {
+        uploadSessionService.abortSession(sessionId, user);
+        return ResponseEntity.ok(Map.of("message", "Upload session aborted"));
+    }
+}
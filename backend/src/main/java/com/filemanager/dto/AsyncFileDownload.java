@@ -0,0 +1,23 @@
+package com.filemanager.dto;
+
+import org.reactivestreams.Publisher;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * A file's metadata plus its stored content as a publisher. Storage is only
+ * contacted when {@code content} is called; the future completes once it
+ * starts responding. {@code contentLength} counts stored bytes, which differ
+ * from the file size when {@code contentEncoding} is set, and {@code eTag}
+ * identifies that stored representation.
+ */
+public record AsyncFileDownload(
+        FileDTO file,
+        String eTag,
+        long contentLength,
+        String contentEncoding,
+        Supplier<CompletableFuture<? extends Publisher<ByteBuffer>>> content
+) {
+}
@@ -0,0 +1,13 @@
+package com.filemanager.dto;
+
+/**
+ * Outcome for one file of a batch upload: {@code file} on success,
+ * {@code error} otherwise. {@code index} is the file's position in the request.
+ */
+public record BatchUploadItemResult(
+        int index,
+        String originalFileName,
+        FileUploadResponse file,
+        String error
+) {
+}
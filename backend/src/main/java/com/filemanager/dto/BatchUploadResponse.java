@@ -0,0 +1,10 @@
+package com.filemanager.dto;
+
+import java.util.List;
+
+public record BatchUploadResponse(
+        int uploaded,
+        int failed,
+        List<BatchUploadItemResult> results
+) {
+}
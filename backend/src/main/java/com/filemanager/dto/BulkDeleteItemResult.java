@@ -0,0 +1,12 @@
+package com.filemanager.dto;
+
+/**
+ * Outcome for one id of a bulk delete; {@code error} says why a file was not
+ * deleted.
+ */
+public record BulkDeleteItemResult(
+        Long fileId,
+        boolean deleted,
+        String error
+) {
+}
@@ -0,0 +1,12 @@
+package com.filemanager.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record BulkDeleteRequest(
+        @NotEmpty(message = "File ids are required")
+        List<@NotNull Long> fileIds
+) {
+}
@@ -0,0 +1,10 @@
+package com.filemanager.dto;
+
+import java.util.List;
+
+public record BulkDeleteResponse(
+        int deleted,
+        int failed,
+        List<BulkDeleteItemResult> results
+) {
+}
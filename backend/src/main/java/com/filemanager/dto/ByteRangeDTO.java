@@ -0,0 +1,10 @@
+package com.filemanager.dto;
+
+/**
+ * An inclusive byte range.
+ */
+public record ByteRangeDTO(
+        long start,
+        long end
+) {
+}
@@ -0,0 +1,13 @@
+package com.filemanager.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public record CreateFolderRequest(
+        @NotBlank(message = "Folder name is required")
+        @Size(max = 255, message = "Folder name must be at most 255 characters")
+        String name,
+
+        Long parentId
+) {
+}
@@ -0,0 +1,14 @@
+package com.filemanager.dto;
+
+import java.util.List;
+
+/**
+ * One page of a cursor listing. {@code nextCursor} is null on the last page;
+ * {@code totalElements} is null unless the total was asked for.
+ */
+public record FileCursorPage(
+        List<FileDTO> content,
+        String nextCursor,
+        Long totalElements
+) {
+}
@@ -9,7 +9,10 @@ public record FileDTO(
         Long fileSize,
         String contentType,
         String downloadUrl,
+        String thumbnailUrl,
         LocalDateTime createdAt,
-        Long ownerId
+        LocalDateTime updatedAt,
+        Long ownerId,
+        Long folderId
 ) {
 }
@@ -0,0 +1,14 @@
+package com.filemanager.dto;
+
+import com.filemanager.services.FileContent;
+
+/**
+ * A file's metadata plus its lazily opened content. {@code eTag} is a strong
+ * entity tag for the content, quoted and ready for the {@code ETag} header.
+ */
+public record FileDownload(
+        FileDTO file,
+        String eTag,
+        FileContent content
+) {
+}
@@ -0,0 +1,18 @@
+package com.filemanager.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+public record FileFromHashRequest(
+        @NotBlank(message = "Content hash is required")
+        @Pattern(regexp = "[0-9a-fA-F]{64}", message = "Content hash must be a hex SHA-256 digest")
+        String sha256,
+
+        @NotBlank(message = "File name is required")
+        @Size(max = 255, message = "File name must be at most 255 characters")
+        String fileName,
+
+        String contentType
+) {
+}
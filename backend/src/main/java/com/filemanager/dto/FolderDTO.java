@@ -0,0 +1,12 @@
+package com.filemanager.dto;
+
+import java.time.LocalDateTime;
+
+public record FolderDTO(
+        Long id,
+        String name,
+        Long parentId,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+}
@@ -0,0 +1,12 @@
+package com.filemanager.dto;
+
+/**
+ * Everything below a folder, at any depth.
+ */
+public record FolderUsageDTO(
+        Long folderId,
+        long folderCount,
+        long fileCount,
+        long totalSize
+) {
+}
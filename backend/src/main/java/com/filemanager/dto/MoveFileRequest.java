@@ -0,0 +1,9 @@
+package com.filemanager.dto;
+
+/**
+ * A null {@code folderId} moves the file to the top level.
+ */
+public record MoveFileRequest(
+        Long folderId
+) {
+}
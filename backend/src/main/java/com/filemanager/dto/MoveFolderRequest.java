@@ -0,0 +1,9 @@
+package com.filemanager.dto;
+
+/**
+ * A null {@code parentId} moves the folder to the top level.
+ */
+public record MoveFolderRequest(
+        Long parentId
+) {
+}
@@ -0,0 +1,16 @@
+package com.filemanager.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public record PresignedUploadCompleteRequest(
+        @NotBlank(message = "Upload key is required")
+        String uploadKey,
+
+        @NotBlank(message = "File name is required")
+        @Size(max = 255, message = "File name must be at most 255 characters")
+        String fileName,
+
+        String contentType
+) {
+}
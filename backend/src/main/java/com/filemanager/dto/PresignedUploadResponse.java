@@ -0,0 +1,10 @@
+package com.filemanager.dto;
+
+/**
+ * Where to upload the file, and the key to pass back once the upload is done.
+ */
+public record PresignedUploadResponse(
+        String uploadKey,
+        PresignedUrlDTO upload
+) {
+}
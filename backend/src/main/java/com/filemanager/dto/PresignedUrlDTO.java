@@ -0,0 +1,16 @@
+package com.filemanager.dto;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A short-lived URL for talking to storage directly. {@code headers} must be
+ * sent with the request exactly as given.
+ */
+public record PresignedUrlDTO(
+        String url,
+        String method,
+        Map<String, String> headers,
+        LocalDateTime expiresAt
+) {
+}
@@ -0,0 +1,27 @@
+package com.filemanager.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Result of comparing storage with the database. Orphaned objects exist in
+ * storage with no row referencing them; dangling keys are referenced by rows
+ * but missing from storage. Samples hold the first few keys of each kind.
+ */
+public record ReconciliationReport(
+        String bucket,
+        String prefix,
+        boolean repair,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        long objectsScanned,
+        long keysScanned,
+        long orphanedObjects,
+        long orphanedBytes,
+        long recentObjectsSkipped,
+        long orphansQueuedForDeletion,
+        long danglingKeys,
+        List<String> orphanSamples,
+        List<String> danglingSamples
+) {
+}
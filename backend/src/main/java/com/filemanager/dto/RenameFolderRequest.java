@@ -0,0 +1,11 @@
+package com.filemanager.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public record RenameFolderRequest(
+        @NotBlank(message = "Folder name is required")
+        @Size(max = 255, message = "Folder name must be at most 255 characters")
+        String name
+) {
+}
@@ -0,0 +1,11 @@
+package com.filemanager.dto;
+
+/**
+ * A user's stored files and quota; a quota of zero means unlimited.
+ */
+public record StorageUsageDTO(
+        long fileCount,
+        long totalSize,
+        long quotaSize
+) {
+}
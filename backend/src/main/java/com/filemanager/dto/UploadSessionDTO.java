@@ -0,0 +1,21 @@
+package com.filemanager.dto;
+
+import com.filemanager.models.UploadSessionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record UploadSessionDTO(
+        String sessionId,
+        String originalFileName,
+        String contentType,
+        Long totalSize,
+        Long chunkSize,
+        Integer chunkCount,
+        UploadSessionStatus status,
+        List<Integer> receivedChunks,
+        List<ByteRangeDTO> receivedRanges,
+        Long fileId,
+        LocalDateTime expiresAt
+) {
+}
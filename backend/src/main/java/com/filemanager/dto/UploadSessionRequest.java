@@ -0,0 +1,19 @@
+package com.filemanager.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+public record UploadSessionRequest(
+        @NotBlank(message = "File name is required")
+        @Size(max = 255, message = "File name must be at most 255 characters")
+        String fileName,
+
+        String contentType,
+
+        @NotNull(message = "Total size is required")
+        @Positive(message = "Total size must be positive")
+        Long totalSize
+) {
+}
@@ -0,0 +1,168 @@
+package com.filemanager.models;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * A unique piece of stored content, identified by its SHA-256 hash. Files with
+ * identical content share one blob and its storage object; {@code refCount}
+ * tracks how many file rows point at it.
+ */
+@Entity
+@Table(
+        name = "blobs",
+        uniqueConstraints = {
+                @UniqueConstraint(
+                        name = "blobs_sha256_unique",
+                        columnNames = "sha256"
+                )
+        }
+)
+public class Blob {
+
+    @Id
+    @SequenceGenerator(
+            name = "blob_id_seq",
+            sequenceName = "blob_id_seq",
+            allocationSize = 1
+    )
+    @GeneratedValue(
+            strategy = GenerationType.SEQUENCE,
+            generator = "blob_id_seq"
+    )
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private Long size; // in bytes
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "storage_codec", nullable = false)
+    private StorageCodec storageCodec = StorageCodec.NONE;
+
+    @Column(name = "stored_size", nullable = false)
+    private Long storedSize; // bytes in storage, after any compression
+
+    @Column(nullable = false)
+    private String s3Key;
+
+    @Column(nullable = false)
+    private String s3Bucket;
+
+    @Column(nullable = false)
+    private Long refCount;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (storedSize == null) {
+            storedSize = size;
+        }
+        createdAt = LocalDateTime.now();
+    }
+
+    public Blob() {
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public StorageCodec getStorageCodec() {
+        return storageCodec;
+    }
+
+    public void setStorageCodec(StorageCodec storageCodec) {
+        this.storageCodec = storageCodec;
+    }
+
+    public Long getStoredSize() {
+        return storedSize;
+    }
+
+    public void setStoredSize(Long storedSize) {
+        this.storedSize = storedSize;
+    }
+
+    public String getS3Key() {
+        return s3Key;
+    }
+
+    public void setS3Key(String s3Key) {
+        this.s3Key = s3Key;
+    }
+
+    public String getS3Bucket() {
+        return s3Bucket;
+    }
+
+    public void setS3Bucket(String s3Bucket) {
+        this.s3Bucket = s3Bucket;
+    }
+
+    public Long getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(Long refCount) {
+        this.refCount = refCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Blob blob = (Blob) o;
+        return Objects.equals(id, blob.id) && Objects.equals(sha256, blob.sha256);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, sha256);
+    }
+
+    @Override
+    public String toString() {
+        return "Blob{" +
+                "id=" + id +
+                ", sha256='" + sha256 + '\'' +
+                ", size=" + size +
+                ", refCount=" + refCount +
+                '}';
+    }
+}
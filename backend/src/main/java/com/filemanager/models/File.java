@@ -13,7 +13,7 @@ public class File {
     @SequenceGenerator(
             name = "file_id_seq",
             sequenceName = "file_id_seq",
-            allocationSize = 1
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -33,8 +33,15 @@ public class File {
     @Column(nullable = false)
     private String contentType;
 
-    @Column(nullable = false, unique = true)
-    private String s3Key; // S3 object key
+    @Enumerated(EnumType.STRING)
+    @Column(name = "storage_codec", nullable = false)
+    private StorageCodec storageCodec = StorageCodec.NONE;
+
+    @Column(name = "stored_size", nullable = false)
+    private Long storedSize; // bytes in storage, after any compression
+
+    @Column(nullable = false)
+    private String s3Key; // S3 object key, shared by files with identical content
 
     @Column(nullable = false)
     private String s3Bucket;
@@ -43,6 +50,14 @@ public class File {
     @JoinColumn(name = "user_id", nullable = false)
     private User owner;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "blob_id")
+    private Blob blob; // null for files stored before deduplication
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "folder_id")
+    private Folder folder; // null at the top level
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -51,6 +66,9 @@ public class File {
 
     @PrePersist
     protected void onCreate() {
+        if (storedSize == null) {
+            storedSize = fileSize;
+        }
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
     }
@@ -115,6 +133,22 @@ public class File {
         this.contentType = contentType;
     }
 
+    public StorageCodec getStorageCodec() {
+        return storageCodec;
+    }
+
+    public void setStorageCodec(StorageCodec storageCodec) {
+        this.storageCodec = storageCodec;
+    }
+
+    public Long getStoredSize() {
+        return storedSize;
+    }
+
+    public void setStoredSize(Long storedSize) {
+        this.storedSize = storedSize;
+    }
+
     public String getS3Key() {
         return s3Key;
     }
@@ -139,6 +173,22 @@ public class File {
         this.owner = owner;
     }
 
+    public Blob getBlob() {
+        return blob;
+    }
+
+    public void setBlob(Blob blob) {
+        this.blob = blob;
+    }
+
+    public Folder getFolder() {
+        return folder;
+    }
+
+    public void setFolder(Folder folder) {
+        this.folder = folder;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
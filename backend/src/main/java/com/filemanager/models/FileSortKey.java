@@ -0,0 +1,54 @@
+package com.filemanager.models;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * File attributes a listing can be ordered by without a sort. Each is
+ * paired with the id as a tie-breaker and has a composite index on
+ * {@code (user_id, <column>, id)}, so a listing can seek straight to the
+ * row after a cursor instead of skipping an offset.
+ */
+public enum FileSortKey {
+    CREATED_AT("createdAt", FileSummary::createdAt, LocalDateTime::parse),
+    ORIGINAL_FILE_NAME("originalFileName", FileSummary::originalFileName, Function.identity()),
+    FILE_SIZE("fileSize", FileSummary::fileSize, Long::valueOf);
+
+    private final String property;
+    private final Function<FileSummary, Object> extractor;
+    private final Function<String, Object> parser;
+
+    <T> FileSortKey(String property, Function<FileSummary, T> extractor, Function<String, T> parser) {
+        this.property = property;
+        this.extractor = extractor::apply;
+        this.parser = parser::apply;
+    }
+
+    /**
+     * The entity property, as used in JPQL and in the {@code sortBy} parameter.
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    public Object valueOf(FileSummary file) {
+        return extractor.apply(file);
+    }
+
+    public String format(Object value) {
+        return value.toString();
+    }
+
+    public Object parse(String value) {
+        return parser.apply(value);
+    }
+
+    public static FileSortKey fromProperty(String property) {
+        return Arrays.stream(values())
+                .filter(key -> key.property.equals(property))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Unsupported sort key: " + property));
+    }
+}
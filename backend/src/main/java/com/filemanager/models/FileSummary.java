@@ -0,0 +1,22 @@
+package com.filemanager.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a file row for listings. Selected with a constructor
+ * expression, so rows are never hydrated into managed {@link File}
+ * entities: no persistence-context entry, no snapshot for dirty checking,
+ * and no owner proxy just to read {@code user_id}.
+ */
+public record FileSummary(
+        Long id,
+        String fileName,
+        String originalFileName,
+        Long fileSize,
+        String contentType,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Long ownerId,
+        Long folderId
+) {
+}
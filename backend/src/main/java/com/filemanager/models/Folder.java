@@ -0,0 +1,123 @@
+package com.filemanager.models;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * A folder of files and other folders. {@code path} lists the ids of the
+ * folder's ancestors, so a whole subtree is one prefix range on an index and
+ * moving it rewrites only folder rows, never files or storage.
+ */
+@Entity
+@Table(name = "folders")
+public class Folder {
+
+    public static final String ROOT_PATH = "/";
+
+    @Id
+    @SequenceGenerator(
+            name = "folder_id_seq",
+            sequenceName = "folder_id_seq",
+            allocationSize = 50
+    )
+    @GeneratedValue(
+            strategy = GenerationType.SEQUENCE,
+            generator = "folder_id_seq"
+    )
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User owner;
+
+    @Column(name = "parent_id")
+    private Long parentId; // null at the top level
+
+    @Column(nullable = false)
+    private String path;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    public Folder() {
+    }
+
+    public Folder(String name, User owner, Folder parent) {
+        this.name = name;
+        this.owner = owner;
+        this.parentId = parent != null ? parent.getId() : null;
+        this.path = parent != null ? parent.getChildPath() : ROOT_PATH;
+    }
+
+    /**
+     * The path of this folder's children, and the prefix of every path in
+     * its subtree.
+     */
+    public String getChildPath() {
+        return path + id + "/";
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public User getOwner() {
+        return owner;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Folder folder = (Folder) o;
+        return Objects.equals(id, folder.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
@@ -0,0 +1,24 @@
+package com.filemanager.models;
+
+/**
+ * How an object's bytes are encoded in storage.
+ */
+public enum StorageCodec {
+    /** Stored as uploaded. */
+    NONE(null),
+    /** zlib-wrapped deflate, which is what HTTP calls {@code deflate}. */
+    DEFLATE("deflate");
+
+    private final String contentEncoding;
+
+    StorageCodec(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+
+    /**
+     * The HTTP {@code Content-Encoding} of the stored bytes, or null if none.
+     */
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+}
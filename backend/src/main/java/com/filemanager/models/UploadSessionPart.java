@@ -0,0 +1,117 @@
+package com.filemanager.models;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Entity
+@Table(
+        name = "upload_session_parts",
+        uniqueConstraints = {
+                @UniqueConstraint(
+                        name = "upload_session_parts_unique",
+                        columnNames = {"session_id", "part_number"}
+                )
+        }
+)
+public class UploadSessionPart {
+
+    @Id
+    @SequenceGenerator(
+            name = "upload_session_part_id_seq",
+            sequenceName = "upload_session_part_id_seq",
+            allocationSize = 1
+    )
+    @GeneratedValue(
+            strategy = GenerationType.SEQUENCE,
+            generator = "upload_session_part_id_seq"
+    )
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "session_id", nullable = false)
+    private UploadSession session;
+
+    @Column(name = "part_number", nullable = false)
+    private Integer partNumber; // 1-based S3 part number, chunk index + 1
+
+    @Column(name = "etag", nullable = false)
+    private String eTag;
+
+    @Column(nullable = false)
+    private Long size; // in bytes
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public UploadSessionPart() {
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public UploadSession getSession() {
+        return session;
+    }
+
+    public void setSession(UploadSession session) {
+        this.session = session;
+    }
+
+    public Integer getPartNumber() {
+        return partNumber;
+    }
+
+    public void setPartNumber(Integer partNumber) {
+        this.partNumber = partNumber;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    public void setETag(String eTag) {
+        this.eTag = eTag;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        UploadSessionPart that = (UploadSessionPart) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
@@ -0,0 +1,9 @@
+package com.filemanager.models;
+
+public enum UploadSessionStatus {
+    ACTIVE,
+    // Claimed by a completion that is assembling the object in storage
+    COMPLETING,
+    COMPLETED,
+    ABORTED
+}
@@ -0,0 +1,62 @@
+package com.filemanager.models;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A user's file count and bytes stored, maintained incrementally so reading
+ * them is a primary-key lookup rather than an aggregate over every file.
+ * Rows are only changed through atomic updates in
+ * {@link com.filemanager.repositories.UserStorageUsageRepository}.
+ */
+@Entity
+@Table(name = "user_storage_usage")
+public class UserStorageUsage {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "file_count", nullable = false)
+    private Long fileCount;
+
+    @Column(name = "total_bytes", nullable = false)
+    private Long totalBytes;
+
+    @Column(name = "reserved_bytes", nullable = false)
+    private Long reservedBytes;
+
+    @Column(name = "quota_bytes")
+    private Long quotaBytes; // null uses the configured default
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public UserStorageUsage() {
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getFileCount() {
+        return fileCount;
+    }
+
+    public Long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public Long getReservedBytes() {
+        return reservedBytes;
+    }
+
+    public Long getQuotaBytes() {
+        return quotaBytes;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,57 @@
+package com.filemanager.repositories;
+
+import com.filemanager.models.Blob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+
+public interface BlobRepository extends JpaRepository<Blob, Long>, BlobRepositoryCustom {
+
+    /**
+     * Inserts the blob with one reference, or adds a reference to the existing
+     * blob with the same hash. Returns the id of the blob that is now
+     * referenced; a copy of it already loaded in the persistence context is
+     * not updated, so it must be refreshed before use.
+     */
+    @Query(value = """
+            INSERT INTO blobs (sha256, size, s3_key, s3_bucket, storage_codec, stored_size, ref_count, created_at)
+            VALUES (:sha256, :size, :s3Key, :s3Bucket, :storageCodec, :storedSize, 1, CURRENT_TIMESTAMP)
+            ON CONFLICT (sha256) DO UPDATE SET ref_count = blobs.ref_count + 1
+            RETURNING id
+            """, nativeQuery = true)
+    Long acquire(@Param("sha256") String sha256,
+                 @Param("size") long size,
+                 @Param("s3Key") String s3Key,
+                 @Param("s3Bucket") String s3Bucket,
+                 @Param("storageCodec") String storageCodec,
+                 @Param("storedSize") long storedSize);
+
+    @Modifying
+    @Query("UPDATE Blob b SET b.refCount = b.refCount + 1 WHERE b.id = :id")
+    int addReference(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Blob b SET b.refCount = b.refCount - 1 WHERE b.id = :id")
+    int removeReference(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM Blob b WHERE b.id = :id AND b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("id") Long id);
+
+    /**
+     * Drops one reference per file in {@code fileIds} from the blobs those
+     * files point at. Must run before the file rows are deleted.
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE blobs b SET ref_count = b.ref_count - f.files
+            FROM (SELECT blob_id, COUNT(*) AS files FROM files
+                  WHERE id IN (:fileIds) AND blob_id IS NOT NULL
+                  GROUP BY blob_id) f
+            WHERE b.id = f.blob_id
+            """, nativeQuery = true)
+    int removeReferences(@Param("fileIds") Collection<Long> fileIds);
+}
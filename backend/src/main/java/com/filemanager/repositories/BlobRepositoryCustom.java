@@ -0,0 +1,19 @@
+package com.filemanager.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BlobRepositoryCustom {
+
+    /**
+     * Where a blob's content is stored.
+     */
+    record StoredObject(String bucket, String key) {
+    }
+
+    /**
+     * Deletes the blobs among {@code ids} that nothing references any more and
+     * returns where their content was stored, so the objects can be removed.
+     */
+    List<StoredObject> deleteUnreferenced(Collection<Long> ids);
+}
@@ -0,0 +1,30 @@
+package com.filemanager.repositories;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Blob statements that return rows from a DELETE. Spring Data only lets
+ * modifying queries return a count, and mapping the deleted rows to entities
+ * would put rows that no longer exist into the persistence context, so these
+ * run as plain JDBC in the caller's transaction.
+ */
+class BlobRepositoryImpl implements BlobRepositoryCustom {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    BlobRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<StoredObject> deleteUnreferenced(Collection<Long> ids) {
+        return jdbcTemplate.query(
+                "DELETE FROM blobs WHERE id IN (:ids) AND ref_count <= 0 RETURNING s3_bucket, s3_key",
+                Map.of("ids", ids),
+                (rs, rowNum) -> new StoredObject(rs.getString("s3_bucket"), rs.getString("s3_key")));
+    }
+}
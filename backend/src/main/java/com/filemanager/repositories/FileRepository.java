@@ -1,23 +1,66 @@
 package com.filemanager.repositories;
 
 import com.filemanager.models.File;
+import com.filemanager.models.FileSummary;
 import com.filemanager.models.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface FileRepository extends JpaRepository<File, Long> {
-    Page<File> findByOwner(User owner, Pageable pageable);
-    List<File> findByOwner(User owner);
+public interface FileRepository extends JpaRepository<File, Long>, FileRepositoryCustom {
+
+    /**
+     * Constructor expression selecting a {@link FileSummary} from alias {@code f}.
+     */
+    String SUMMARY = "new com.filemanager.models.FileSummary(f.id, f.fileName, f.originalFileName, "
+            + "f.fileSize, f.contentType, f.createdAt, f.updatedAt, f.owner.id, f.folder.id)";
+
+    /**
+     * Listing page as read-only projections; see {@link FileSummary}.
+     */
+    @Query(value = "SELECT " + SUMMARY + " FROM File f WHERE f.owner = :owner",
+            countQuery = "SELECT COUNT(f) FROM File f WHERE f.owner = :owner")
+    Page<FileSummary> findSummariesByOwner(@Param("owner") User owner, Pageable pageable);
+
     Optional<File> findByIdAndOwner(Long id, User owner);
+
+    @EntityGraph(attributePaths = "blob")
+    Optional<File> findWithBlobByIdAndOwner(Long id, User owner);
+
+    List<File> findByOwnerAndIdIn(User owner, Collection<Long> ids);
     boolean existsByIdAndOwner(Long id, User owner);
+    boolean existsByFolderId(Long folderId);
     long countByOwner(User owner);
+    boolean existsByS3Key(String s3Key);
+    Optional<File> findFirstByOwnerAndBlobSha256(User owner, String sha256);
     
-    @Query("SELECT SUM(f.fileSize) FROM File f WHERE f.owner = :owner")
-    Long getTotalFileSizeByOwner(@Param("owner") User owner);
+    /**
+     * Next page of distinct storage keys referenced by files or blobs, in
+     * byte order to match storage listings. {@code keyPattern} is a LIKE
+     * pattern such as {@code files/%}.
+     */
+    @Query(value = """
+            SELECT k FROM (
+                (SELECT s3_key COLLATE "C" AS k FROM files
+                 WHERE s3_bucket = :bucket AND s3_key LIKE :keyPattern AND s3_key COLLATE "C" > :afterKey
+                 ORDER BY s3_key COLLATE "C" LIMIT :limit)
+                UNION
+                (SELECT s3_key COLLATE "C" FROM blobs
+                 WHERE s3_bucket = :bucket AND s3_key LIKE :keyPattern AND s3_key COLLATE "C" > :afterKey
+                 ORDER BY s3_key COLLATE "C" LIMIT :limit)
+            ) referenced
+            ORDER BY k
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<String> findReferencedKeysAfter(@Param("bucket") String bucket,
+                                         @Param("keyPattern") String keyPattern,
+                                         @Param("afterKey") String afterKey,
+                                         @Param("limit") int limit);
 }
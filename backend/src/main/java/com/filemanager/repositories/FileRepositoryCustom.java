@@ -0,0 +1,25 @@
+package com.filemanager.repositories;
+
+import com.filemanager.models.FileSummary;
+import com.filemanager.models.Folder;
+import com.filemanager.models.FileSortKey;
+import com.filemanager.models.User;
+
+import java.util.List;
+
+public interface FileRepositoryCustom {
+
+    /**
+     * Up to {@code limit} of the owner's files ordered by {@code sortKey}
+     * then id, starting after the row identified by {@code afterValue} and
+     * {@code afterId}, or from the beginning when {@code afterId} is null.
+     */
+    List<FileSummary> findByOwnerAfter(User owner, FileSortKey sortKey, boolean ascending,
+                                       Object afterValue, Long afterId, int limit);
+
+    /**
+     * Up to {@code limit} files directly in {@code folder}, or at the owner's
+     * top level when it is null, in name order after the given name and id.
+     */
+    List<FileSummary> findInFolderAfter(User owner, Folder folder, String afterName, Long afterId, int limit);
+}
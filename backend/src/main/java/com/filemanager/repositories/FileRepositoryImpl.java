@@ -0,0 +1,67 @@
+package com.filemanager.repositories;
+
+import com.filemanager.models.FileSortKey;
+import com.filemanager.models.FileSummary;
+import com.filemanager.models.Folder;
+import com.filemanager.models.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+
+/**
+ * Keyset pagination for {@link FileRepository}. The seek predicate and the
+ * ORDER BY use the same columns in the same direction, so Postgres walks the
+ * matching {@code (<scope>, <column>, id)} index from the cursor and stops
+ * after {@code limit} rows, however deep the page.
+ */
+class FileRepositoryImpl implements FileRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<FileSummary> findByOwnerAfter(User owner, FileSortKey sortKey, boolean ascending,
+                                              Object afterValue, Long afterId, int limit) {
+        return seek("f.owner = :scope", owner, sortKey, ascending, afterValue, afterId, limit);
+    }
+
+    @Override
+    public List<FileSummary> findInFolderAfter(User owner, Folder folder, String afterName, Long afterId,
+                                               int limit) {
+        if (folder == null) {
+            return seek("f.owner = :scope AND f.folder IS NULL", owner,
+                    FileSortKey.ORIGINAL_FILE_NAME, true, afterName, afterId, limit);
+        }
+        return seek("f.folder = :scope", folder,
+                FileSortKey.ORIGINAL_FILE_NAME, true, afterName, afterId, limit);
+    }
+
+    private List<FileSummary> seek(String scopeCondition, Object scope, FileSortKey sortKey, boolean ascending,
+                                   Object afterValue, Long afterId, int limit) {
+        // The property comes from the enum, never from the request
+        String column = "f." + sortKey.getProperty();
+        String comparison = ascending ? ">" : "<";
+        String direction = ascending ? "ASC" : "DESC";
+
+        StringBuilder jpql = new StringBuilder("SELECT ").append(FileRepository.SUMMARY)
+                .append(" FROM File f WHERE ").append(scopeCondition);
+        if (afterId != null) {
+            // A row comparison, which Postgres turns into one range scan of the index
+            jpql.append(" AND (").append(column).append(", f.id) ").append(comparison)
+                    .append(" (:afterValue, :afterId)");
+        }
+        jpql.append(" ORDER BY ").append(column).append(' ').append(direction)
+                .append(", f.id ").append(direction);
+
+        TypedQuery<FileSummary> query = entityManager.createQuery(jpql.toString(), FileSummary.class)
+                .setParameter("scope", scope)
+                .setMaxResults(limit);
+        if (afterId != null) {
+            query.setParameter("afterValue", afterValue)
+                    .setParameter("afterId", afterId);
+        }
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,82 @@
+package com.filemanager.repositories;
+
+import com.filemanager.models.Folder;
+import com.filemanager.models.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface FolderRepository extends JpaRepository<Folder, Long> {
+
+    Optional<Folder> findByIdAndOwner(Long id, User owner);
+
+    /**
+     * Direct subfolders, or top-level folders when {@code parentId} is null.
+     */
+    List<Folder> findByOwnerAndParentIdOrderByNameAscIdAsc(User owner, Long parentId);
+
+    boolean existsByOwnerAndParentIdAndNameIgnoreCase(User owner, Long parentId, String name);
+
+    boolean existsByParentId(Long parentId);
+
+    /**
+     * Serialises path changes per user until the transaction ends, so two
+     * concurrent moves can never put folders inside each other and a new
+     * folder never copies a path that is being rewritten.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:key)", nativeQuery = true)
+    Integer lockForMove(@Param("key") long key);
+
+    /**
+     * Moves folder {@code id} to {@code newPath} under {@code parentId} and
+     * rewrites the paths of its whole subtree to match, in one statement.
+     * Files keep their folder, so none of them are touched.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = """
+            UPDATE folders
+            SET path = CASE WHEN id = :id THEN :newPath
+                            ELSE :newChildPath || substring(path FROM :oldChildPathLength + 1) END,
+                parent_id = CASE WHEN id = :id THEN CAST(:parentId AS BIGINT) ELSE parent_id END,
+                updated_at = CURRENT_TIMESTAMP
+            WHERE user_id = :userId AND (id = :id OR path LIKE :oldChildPath || '%')
+            """, nativeQuery = true)
+    int moveSubtree(@Param("userId") Long userId,
+                    @Param("id") Long id,
+                    @Param("parentId") Long parentId,
+                    @Param("newPath") String newPath,
+                    @Param("oldChildPath") String oldChildPath,
+                    @Param("oldChildPathLength") int oldChildPathLength,
+                    @Param("newChildPath") String newChildPath);
+
+    /**
+     * Folders, files and bytes below a folder whose children have
+     * {@code childPath}, at any depth.
+     */
+    @Query(value = """
+            WITH subtree AS (
+                SELECT id FROM folders
+                WHERE user_id = :userId AND (id = :id OR path LIKE :childPath || '%')
+            )
+            SELECT (SELECT COUNT(*) - 1 FROM subtree) AS "folderCount",
+                   COUNT(f.id) AS "fileCount",
+                   COALESCE(SUM(f.file_size), 0) AS "totalSize"
+            FROM files f
+            WHERE f.folder_id IN (SELECT id FROM subtree)
+            """, nativeQuery = true)
+    SubtreeUsage getSubtreeUsage(@Param("userId") Long userId,
+                                 @Param("id") Long id,
+                                 @Param("childPath") String childPath);
+
+    interface SubtreeUsage {
+        long getFolderCount();
+
+        long getFileCount();
+
+        long getTotalSize();
+    }
+}
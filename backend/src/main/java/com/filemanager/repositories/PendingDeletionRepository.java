@@ -0,0 +1,48 @@
+package com.filemanager.repositories;
+
+import com.filemanager.models.PendingDeletion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface PendingDeletionRepository extends JpaRepository<PendingDeletion, Long> {
+
+    /**
+     * Claims up to {@code limit} due deletions by moving their next attempt to
+     * {@code leaseUntil}, and returns them. Rows another collector is claiming
+     * are skipped rather than waited on, and a claim that is never finished
+     * simply becomes due again once the lease runs out.
+     */
+    @Query(value = """
+            UPDATE pending_deletions SET next_attempt_at = :leaseUntil
+            WHERE id IN (SELECT id FROM pending_deletions
+                         WHERE next_attempt_at <= :now
+                         ORDER BY next_attempt_at
+                         LIMIT :limit
+                         FOR UPDATE SKIP LOCKED)
+            RETURNING *
+            """, nativeQuery = true)
+    List<PendingDeletion> claimDue(@Param("now") LocalDateTime now,
+                                   @Param("leaseUntil") LocalDateTime leaseUntil,
+                                   @Param("limit") int limit);
+
+    @Modifying
+    @Query("""
+            UPDATE PendingDeletion p
+            SET p.attempts = :attempts, p.nextAttemptAt = :nextAttemptAt, p.lastError = :lastError
+            WHERE p.id = :id
+            """)
+    int reschedule(@Param("id") Long id,
+                   @Param("attempts") int attempts,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("lastError") String lastError);
+
+    boolean existsByS3BucketAndS3Key(String s3Bucket, String s3Key);
+
+    @Query("SELECT MIN(p.createdAt) FROM PendingDeletion p")
+    LocalDateTime findOldestCreatedAt();
+}
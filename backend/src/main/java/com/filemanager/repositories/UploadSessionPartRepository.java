@@ -0,0 +1,34 @@
+package com.filemanager.repositories;
+
+import com.filemanager.models.UploadSessionPart;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface UploadSessionPartRepository extends JpaRepository<UploadSessionPart, Long> {
+    List<UploadSessionPart> findBySessionIdOrderByPartNumber(String sessionId);
+
+    /**
+     * Records a received part; a re-sent chunk replaces the earlier one.
+     * Chunk uploads run outside any transaction, so this opens its own.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO upload_session_parts (session_id, part_number, etag, size, created_at)
+            VALUES (:sessionId, :partNumber, :eTag, :size, CURRENT_TIMESTAMP)
+            ON CONFLICT (session_id, part_number) DO UPDATE SET etag = EXCLUDED.etag, size = EXCLUDED.size
+            """, nativeQuery = true)
+    int savePart(@Param("sessionId") String sessionId,
+                 @Param("partNumber") int partNumber,
+                 @Param("eTag") String eTag,
+                 @Param("size") long size);
+
+    @Modifying
+    @Query("DELETE FROM UploadSessionPart p WHERE p.session.id = :sessionId")
+    int deleteBySessionId(@Param("sessionId") String sessionId);
+}
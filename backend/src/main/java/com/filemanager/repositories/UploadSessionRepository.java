@@ -0,0 +1,24 @@
+package com.filemanager.repositories;
+
+import com.filemanager.models.UploadSession;
+import com.filemanager.models.UploadSessionStatus;
+import com.filemanager.models.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+    Optional<UploadSession> findByIdAndOwner(String id, User owner);
+    List<UploadSession> findTop100ByStatusAndExpiresAtBefore(UploadSessionStatus status, LocalDateTime expiresAt);
+    List<UploadSession> findTop100ByStatusAndUpdatedAtBefore(UploadSessionStatus status, LocalDateTime updatedAt);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UploadSession s WHERE s.id = :id AND s.owner = :owner")
+    Optional<UploadSession> findByIdAndOwnerForUpdate(@Param("id") String id, @Param("owner") User owner);
+}
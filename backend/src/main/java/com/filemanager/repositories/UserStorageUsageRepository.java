@@ -0,0 +1,107 @@
+package com.filemanager.repositories;
+
+import com.filemanager.models.UserStorageUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface UserStorageUsageRepository extends JpaRepository<UserStorageUsage, Long> {
+
+    /**
+     * Holds {@code bytes} against the user's quota if they fit alongside what
+     * is stored and already reserved. A quota of zero or less is unlimited.
+     *
+     * @return 1 if reserved, 0 if the quota would be exceeded
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO user_storage_usage (user_id, reserved_bytes, updated_at)
+            SELECT :userId, :bytes, CURRENT_TIMESTAMP
+            WHERE :defaultQuota <= 0 OR :bytes <= :defaultQuota
+            ON CONFLICT (user_id) DO UPDATE
+                SET reserved_bytes = user_storage_usage.reserved_bytes + :bytes,
+                    updated_at = CURRENT_TIMESTAMP
+                WHERE COALESCE(user_storage_usage.quota_bytes, :defaultQuota) <= 0
+                   OR user_storage_usage.total_bytes + user_storage_usage.reserved_bytes + :bytes
+                          <= COALESCE(user_storage_usage.quota_bytes, :defaultQuota)
+            """, nativeQuery = true)
+    int reserve(@Param("userId") Long userId, @Param("bytes") long bytes, @Param("defaultQuota") long defaultQuota);
+
+    /**
+     * Records bytes just {@linkplain #reserve reserved}, so they are given back
+     * by {@link #expireReservations} if nothing releases them first. Returns
+     * the reservation's id.
+     */
+    @Query(value = """
+            INSERT INTO storage_reservations (user_id, bytes, expires_at)
+            VALUES (:userId, :bytes, :expiresAt)
+            RETURNING id
+            """, nativeQuery = true)
+    Long addReservation(@Param("userId") Long userId,
+                        @Param("bytes") long bytes,
+                        @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Deletes the reservation and gives its bytes back. Does nothing for a
+     * reservation that was already released or has expired, so its bytes are
+     * never given back twice.
+     */
+    @Modifying
+    @Query(value = """
+            WITH released AS (
+                DELETE FROM storage_reservations WHERE id = :id RETURNING user_id, bytes
+            )
+            UPDATE user_storage_usage u
+            SET reserved_bytes = GREATEST(u.reserved_bytes - r.bytes, 0),
+                updated_at = CURRENT_TIMESTAMP
+            FROM released r
+            WHERE u.user_id = r.user_id
+            """, nativeQuery = true)
+    int releaseReservation(@Param("id") Long id);
+
+    /**
+     * Deletes the reservations that expired before {@code now} and gives their
+     * bytes back. Returns the number of users whose reservations expired.
+     */
+    @Modifying
+    @Query(value = """
+            WITH expired AS (
+                DELETE FROM storage_reservations WHERE expires_at < :now RETURNING user_id, bytes
+            ), totals AS (
+                SELECT user_id, SUM(bytes) AS bytes FROM expired GROUP BY user_id
+            )
+            UPDATE user_storage_usage u
+            SET reserved_bytes = GREATEST(u.reserved_bytes - t.bytes, 0),
+                updated_at = CURRENT_TIMESTAMP
+            FROM totals t
+            WHERE u.user_id = t.user_id
+            """, nativeQuery = true)
+    int expireReservations(@Param("now") LocalDateTime now);
+
+    /**
+     * Counts stored files in. Their reservation is released separately.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO user_storage_usage (user_id, file_count, total_bytes, updated_at)
+            VALUES (:userId, :files, :bytes, CURRENT_TIMESTAMP)
+            ON CONFLICT (user_id) DO UPDATE
+                SET file_count = user_storage_usage.file_count + :files,
+                    total_bytes = user_storage_usage.total_bytes + :bytes,
+                    updated_at = CURRENT_TIMESTAMP
+            """, nativeQuery = true)
+    int addFiles(@Param("userId") Long userId, @Param("files") long files, @Param("bytes") long bytes);
+
+    @Modifying
+    @Query(value = """
+            UPDATE user_storage_usage
+            SET file_count = file_count - :files,
+                total_bytes = total_bytes - :bytes,
+                updated_at = CURRENT_TIMESTAMP
+            WHERE user_id = :userId
+            """, nativeQuery = true)
+    int removeFiles(@Param("userId") Long userId, @Param("files") long files, @Param("bytes") long bytes);
+}
@@ -0,0 +1,237 @@
+package com.filemanager.services;
+
+import com.filemanager.config.S3Buckets;
+import com.filemanager.dto.BatchUploadItemResult;
+import com.filemanager.dto.BatchUploadResponse;
+import com.filemanager.dto.FileUploadResponse;
+import com.filemanager.models.Blob;
+import com.filemanager.models.File;
+import com.filemanager.models.StorageCodec;
+import com.filemanager.models.User;
+import com.filemanager.repositories.FileRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+/**
+ * Uploads many files in one request. Objects are written to storage in
+ * parallel on a bounded executor, outside any transaction; the file rows are
+ * then inserted together in one transaction, which Hibernate sends as JDBC
+ * batches. A file that fails validation or storage does not fail the others.
+ */
+@Service
+public class BatchUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchUploadService.class);
+
+    private final FileService fileService;
+    private final BlobService blobService;
+    private final CompressionPolicy compressionPolicy;
+    private final StorageUsageService storageUsageService;
+    private final FileRepository fileRepository;
+    private final StorageGarbageCollector storageGarbageCollector;
+    private final EntityManager entityManager;
+    private final S3Buckets s3Buckets;
+    private final Executor batchUploadExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxFiles;
+
+    public BatchUploadService(
+            FileService fileService,
+            BlobService blobService,
+            CompressionPolicy compressionPolicy,
+            StorageUsageService storageUsageService,
+            FileRepository fileRepository,
+            StorageGarbageCollector storageGarbageCollector,
+            EntityManager entityManager,
+            S3Buckets s3Buckets,
+            @Qualifier("batchUploadExecutor") Executor batchUploadExecutor,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.file.batch.max-files:500}") int maxFiles) {
+        this.fileService = fileService;
+        this.blobService = blobService;
+        this.compressionPolicy = compressionPolicy;
+        this.storageUsageService = storageUsageService;
+        this.fileRepository = fileRepository;
+        this.storageGarbageCollector = storageGarbageCollector;
+        this.entityManager = entityManager;
+        this.s3Buckets = s3Buckets;
+        this.batchUploadExecutor = batchUploadExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.maxFiles = maxFiles;
+    }
+
+    public BatchUploadResponse uploadFiles(List<MultipartFile> multipartFiles, User owner) {
+        if (multipartFiles == null || multipartFiles.isEmpty()) {
+            throw new IllegalArgumentException("No files to upload");
+        }
+        if (multipartFiles.size() > maxFiles) {
+            throw new IllegalArgumentException("A batch may contain at most " + maxFiles + " files");
+        }
+
+        // The whole batch is held against the quota up front; what is not saved is released below
+        long reservedBytes = multipartFiles.stream().mapToLong(MultipartFile::getSize).sum();
+        StorageUsageService.Reservation reservation = storageUsageService.reserve(owner, reservedBytes);
+
+        String bucket = s3Buckets.getFiles();
+        List<CompletableFuture<BlobService.StoredContent>> uploads = new ArrayList<>(multipartFiles.size());
+        for (MultipartFile multipartFile : multipartFiles) {
+            uploads.add(upload(multipartFile, bucket, owner));
+        }
+
+        int count = multipartFiles.size();
+        BlobService.StoredContent[] stored = new BlobService.StoredContent[count];
+        String[] errors = new String[count];
+        for (int i = 0; i < count; i++) {
+            try {
+                stored[i] = uploads.get(i).join();
+            } catch (CompletionException e) {
+                errors[i] = errorMessage(e.getCause());
+            }
+        }
+
+        FileUploadResponse[] saved = new FileUploadResponse[count];
+        try {
+            transactionTemplate.executeWithoutResult(
+                    status -> saveFiles(multipartFiles, stored, saved, owner, reservation));
+        } catch (RuntimeException e) {
+            logger.error("Failed to save batch of {} files", count, e);
+            storageUsageService.release(reservation);
+            discard(stored);
+            for (int i = 0; i < count; i++) {
+                if (stored[i] != null) {
+                    saved[i] = null;
+                    errors[i] = "Failed to upload file";
+                }
+            }
+        }
+
+        List<BatchUploadItemResult> results = new ArrayList<>(count);
+        int uploaded = 0;
+        for (int i = 0; i < count; i++) {
+            if (saved[i] != null) {
+                uploaded++;
+            }
+            results.add(new BatchUploadItemResult(
+                    i, multipartFiles.get(i).getOriginalFilename(), saved[i], errors[i]));
+        }
+        return new BatchUploadResponse(uploaded, count - uploaded, results);
+    }
+
+    private CompletableFuture<BlobService.StoredContent> upload(MultipartFile multipartFile, String bucket, User owner) {
+        String s3Key;
+        StorageCodec codec;
+        try {
+            String originalFileName = fileService.validateUpload(multipartFile);
+            s3Key = fileService.objectKey(owner, fileService.newFileName(originalFileName));
+            codec = compressionPolicy.codecFor(multipartFile.getContentType(), multipartFile.getSize());
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            try (InputStream inputStream = multipartFile.getInputStream()) {
+                return blobService.upload(bucket, s3Key, inputStream, multipartFile.getSize(), codec);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, batchUploadExecutor);
+    }
+
+    // Blobs first, in one upsert, so the file inserts that follow go out as JDBC batches
+    private void saveFiles(List<MultipartFile> multipartFiles, BlobService.StoredContent[] stored,
+                           FileUploadResponse[] saved, User owner,
+                           StorageUsageService.Reservation reservation) {
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < stored.length; i++) {
+            if (stored[i] != null) {
+                indexes.add(i);
+            }
+        }
+        Map<String, BlobService.RegisteredBlob> blobs = blobService.registerAll(
+                indexes.stream().map(i -> stored[i]).toList());
+
+        List<File> files = new ArrayList<>(indexes.size());
+        for (int i : indexes) {
+            BlobService.StoredContent content = stored[i];
+            MultipartFile multipartFile = multipartFiles.get(i);
+            BlobService.RegisteredBlob blob = blobs.get(content.sha256());
+
+            String key = content.key();
+            File file = new File(
+                    key.substring(key.lastIndexOf('/') + 1),
+                    multipartFile.getOriginalFilename(),
+                    multipartFile.getSize(),
+                    multipartFile.getContentType(),
+                    blob.key(),
+                    blob.bucket(),
+                    owner
+            );
+            // A reference is enough to set the foreign key; the blob row is never loaded
+            file.setBlob(entityManager.getReference(Blob.class, blob.id()));
+            file.setStorageCodec(blob.codec());
+            file.setStoredSize(blob.storedSize());
+            files.add(file);
+        }
+
+        List<File> savedFiles = fileRepository.saveAll(files);
+        storageUsageService.recordAdded(owner, savedFiles.size(),
+                savedFiles.stream().mapToLong(File::getFileSize).sum(), reservation);
+        for (int i = 0; i < savedFiles.size(); i++) {
+            File file = savedFiles.get(i);
+            eventPublisher.publishEvent(FileStoredEvent.of(file));
+            saved[indexes.get(i)] = new FileUploadResponse(
+                    file.getId(),
+                    file.getFileName(),
+                    file.getOriginalFileName(),
+                    file.getFileSize(),
+                    file.getContentType(),
+                    "File uploaded successfully"
+            );
+        }
+    }
+
+    // Queued rather than deleted inline, so a storage outage cannot leave the objects behind
+    private void discard(BlobService.StoredContent[] stored) {
+        Map<String, List<String>> keysByBucket = Arrays.stream(stored)
+                .filter(Objects::nonNull)
+                .collect(Collectors.groupingBy(BlobService.StoredContent::bucket,
+                        Collectors.mapping(BlobService.StoredContent::key, Collectors.toList())));
+        try {
+            transactionTemplate.executeWithoutResult(
+                    status -> keysByBucket.forEach(storageGarbageCollector::enqueueAll));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to queue the objects of a failed batch for deletion: {}", keysByBucket, e);
+        }
+    }
+
+    private static String errorMessage(Throwable error) {
+        if (error instanceof IllegalArgumentException) {
+            return error.getMessage();
+        }
+        logger.warn("Failed to store file of a batch upload", error);
+        return "Failed to upload file";
+    }
+}
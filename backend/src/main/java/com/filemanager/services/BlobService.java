@@ -0,0 +1,195 @@
+package com.filemanager.services;
+
+import com.filemanager.config.S3Service;
+import com.filemanager.models.Blob;
+import com.filemanager.models.StorageCodec;
+import com.filemanager.repositories.BlobRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Content-addressed storage: each distinct content hash is stored once and
+ * reference counted by the file rows that point at it.
+ */
+@Service
+public class BlobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlobService.class);
+
+    private final BlobRepository blobRepository;
+    private final S3Service s3Service;
+    private final StorageGarbageCollector storageGarbageCollector;
+    private final EntityManager entityManager;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public BlobService(BlobRepository blobRepository, S3Service s3Service,
+                       StorageGarbageCollector storageGarbageCollector, EntityManager entityManager,
+                       NamedParameterJdbcTemplate jdbcTemplate) {
+        this.blobRepository = blobRepository;
+        this.s3Service = s3Service;
+        this.storageGarbageCollector = storageGarbageCollector;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Content written to storage but not yet recorded as a blob.
+     */
+    public record StoredContent(String bucket, String key, String sha256, long size,
+                                StorageCodec codec, long storedSize) {
+    }
+
+    /**
+     * A blob as {@link #registerAll} returns it: where its content lives, which
+     * for content that was already stored is not where it was just uploaded.
+     */
+    public record RegisteredBlob(Long id, String bucket, String key, StorageCodec codec, long storedSize) {
+    }
+
+    /**
+     * Streams the content to {@code bucket/key} while hashing it, then records
+     * a reference to the blob with that hash. If the content was already
+     * stored, the copy just written is removed and the existing blob returned.
+     * The hash is always of the original bytes, whatever {@code codec} stores.
+     */
+    @Transactional
+    public Blob store(String bucket, String key, InputStream content, long size, StorageCodec codec) {
+        return register(upload(bucket, key, content, size, codec));
+    }
+
+    /**
+     * The storage half of {@link #store}: writes and hashes the content without
+     * touching the database, so callers can upload outside a transaction and
+     * {@link #register} the results together.
+     */
+    public StoredContent upload(String bucket, String key, InputStream content, long size, StorageCodec codec) {
+        MessageDigest digest = newDigest();
+        long storedSize = s3Service.putObject(bucket, key, new DigestInputStream(content, digest), codec);
+        String sha256 = HexFormat.of().formatHex(digest.digest());
+        return new StoredContent(bucket, key, sha256, size, codec, storedSize);
+    }
+
+    @Transactional
+    public Blob register(StoredContent content) {
+        String bucket = content.bucket();
+        String key = content.key();
+        Long blobId = blobRepository.acquire(content.sha256(), content.size(), key, bucket,
+                content.codec().name(), content.storedSize());
+        // The same blob may already be loaded in this transaction with its old reference count
+        Blob blob = entityManager.getReference(Blob.class, blobId);
+        entityManager.refresh(blob);
+        if (!blob.getS3Key().equals(key)) {
+            logger.debug("Content {} already stored at {}, dropping duplicate {}", content.sha256(), blob.getS3Key(), key);
+            storageGarbageCollector.enqueue(bucket, key);
+        }
+        return blob;
+    }
+
+    /**
+     * {@link #register} for many uploads in one statement: one upsert row per
+     * distinct hash, adding a reference for every upload of it. Returns the
+     * blobs by hash; uploads of content that was already stored are queued for
+     * deletion.
+     */
+    @Transactional
+    public Map<String, RegisteredBlob> registerAll(List<StoredContent> contents) {
+        // ON CONFLICT may touch each row only once per statement; hash order keeps
+        // concurrent batches locking shared blobs in the same order
+        Map<String, List<StoredContent>> byHash = contents.stream()
+                .collect(Collectors.groupingBy(StoredContent::sha256, TreeMap::new, Collectors.toList()));
+        if (byHash.isEmpty()) {
+            return Map.of();
+        }
+
+        StringBuilder sql = new StringBuilder("INSERT INTO blobs")
+                .append(" (sha256, size, s3_key, s3_bucket, storage_codec, stored_size, ref_count, created_at)")
+                .append(" VALUES ");
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        int row = 0;
+        for (List<StoredContent> uploads : byHash.values()) {
+            StoredContent content = uploads.get(0);
+            sql.append(row == 0 ? "" : ", ").append(String.format("(:sha256%1$d, :size%1$d, :key%1$d, :bucket%1$d,"
+                    + " :codec%1$d, :storedSize%1$d, :refs%1$d, CURRENT_TIMESTAMP)", row));
+            params.addValue("sha256" + row, content.sha256())
+                    .addValue("size" + row, content.size())
+                    .addValue("key" + row, content.key())
+                    .addValue("bucket" + row, content.bucket())
+                    .addValue("codec" + row, content.codec().name())
+                    .addValue("storedSize" + row, content.storedSize())
+                    .addValue("refs" + row, uploads.size());
+            row++;
+        }
+        sql.append(" ON CONFLICT (sha256) DO UPDATE SET ref_count = blobs.ref_count + EXCLUDED.ref_count")
+                .append(" RETURNING id, sha256, s3_bucket, s3_key, storage_codec, stored_size");
+
+        Map<String, RegisteredBlob> blobs = new HashMap<>();
+        jdbcTemplate.query(sql.toString(), params, rs -> {
+            blobs.put(rs.getString("sha256"), new RegisteredBlob(
+                    rs.getLong("id"),
+                    rs.getString("s3_bucket"),
+                    rs.getString("s3_key"),
+                    StorageCodec.valueOf(rs.getString("storage_codec")),
+                    rs.getLong("stored_size")));
+        });
+
+        List<StoredContent> duplicates = new ArrayList<>();
+        for (StoredContent content : contents) {
+            if (!blobs.get(content.sha256()).key().equals(content.key())) {
+                duplicates.add(content);
+            }
+        }
+        if (!duplicates.isEmpty()) {
+            logger.debug("Dropping {} uploads of content that was already stored", duplicates.size());
+            duplicates.stream()
+                    .collect(Collectors.groupingBy(StoredContent::bucket,
+                            Collectors.mapping(StoredContent::key, Collectors.toList())))
+                    .forEach(storageGarbageCollector::enqueueAll);
+        }
+        return blobs;
+    }
+
+    @Transactional
+    public void addReference(Blob blob) {
+        blobRepository.addReference(blob.getId());
+    }
+
+    /**
+     * Drops one reference and deletes the blob once nothing points at it any
+     * more; its storage object is queued for the garbage collector.
+     */
+    @Transactional
+    public void release(Blob blob) {
+        // Read the location before the row can disappear underneath a lazy proxy
+        String bucket = blob.getS3Bucket();
+        String key = blob.getS3Key();
+        blobRepository.removeReference(blob.getId());
+        if (blobRepository.deleteIfUnreferenced(blob.getId()) > 0) {
+            storageGarbageCollector.enqueue(bucket, key);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
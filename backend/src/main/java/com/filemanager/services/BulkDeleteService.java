@@ -0,0 +1,117 @@
+package com.filemanager.services;
+
+import com.filemanager.dto.BulkDeleteItemResult;
+import com.filemanager.dto.BulkDeleteResponse;
+import com.filemanager.models.File;
+import com.filemanager.models.User;
+import com.filemanager.repositories.BlobRepository;
+import com.filemanager.repositories.BlobRepositoryCustom;
+import com.filemanager.repositories.FileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Deletes many files at once: ownership is checked with one query, and rows
+ * and blob references are removed with set-based statements in one
+ * transaction. Freed storage objects are queued for the
+ * {@link StorageGarbageCollector}, which removes them with batched
+ * {@code DeleteObjects} calls. Ids that are missing or owned by someone else
+ * are reported individually and do not stop the rest.
+ */
+@Service
+public class BulkDeleteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkDeleteService.class);
+
+    private final FileRepository fileRepository;
+    private final BlobRepository blobRepository;
+    private final StorageGarbageCollector storageGarbageCollector;
+    private final StorageUsageService storageUsageService;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxFiles;
+
+    public BulkDeleteService(
+            FileRepository fileRepository,
+            BlobRepository blobRepository,
+            StorageGarbageCollector storageGarbageCollector,
+            StorageUsageService storageUsageService,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.file.bulk-delete.max-files:1000}") int maxFiles) {
+        this.fileRepository = fileRepository;
+        this.blobRepository = blobRepository;
+        this.storageGarbageCollector = storageGarbageCollector;
+        this.storageUsageService = storageUsageService;
+        this.transactionTemplate = transactionTemplate;
+        this.maxFiles = maxFiles;
+    }
+
+    public BulkDeleteResponse deleteFiles(List<Long> fileIds, User owner) {
+        Set<Long> requested = new LinkedHashSet<>(fileIds);
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("No files to delete");
+        }
+        if (requested.size() > maxFiles) {
+            throw new IllegalArgumentException("A bulk delete may contain at most " + maxFiles + " files");
+        }
+
+        Set<Long> deleted = new HashSet<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> deleteRows(requested, owner, deleted));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Failed to delete files", e);
+        }
+
+        List<BulkDeleteItemResult> results = new ArrayList<>(requested.size());
+        for (Long id : requested) {
+            if (deleted.contains(id)) {
+                results.add(new BulkDeleteItemResult(id, true, null));
+            } else {
+                results.add(new BulkDeleteItemResult(id, false, "File not found with id: " + id));
+            }
+        }
+        logger.debug("Bulk deleted {} of {} files for user {}", deleted.size(), requested.size(), owner.getId());
+        return new BulkDeleteResponse(deleted.size(), requested.size() - deleted.size(), results);
+    }
+
+    private void deleteRows(Set<Long> requested, User owner, Set<Long> deleted) {
+        List<File> files = fileRepository.findByOwnerAndIdIn(owner, requested);
+        if (files.isEmpty()) {
+            return;
+        }
+
+        Set<Long> blobIds = new HashSet<>();
+        long bytes = 0;
+        for (File file : files) {
+            deleted.add(file.getId());
+            bytes += file.getFileSize();
+            if (file.getBlob() != null) {
+                // getId() on the lazy proxy does not load the blob
+                blobIds.add(file.getBlob().getId());
+            } else {
+                storageGarbageCollector.enqueue(file.getS3Bucket(), file.getS3Key());
+            }
+        }
+
+        if (!blobIds.isEmpty()) {
+            blobRepository.removeReferences(deleted);
+        }
+        fileRepository.deleteAllByIdInBatch(deleted);
+        storageUsageService.recordRemoved(owner, deleted.size(), bytes);
+        if (!blobIds.isEmpty()) {
+            blobRepository.deleteUnreferenced(blobIds).stream()
+                    .collect(Collectors.groupingBy(BlobRepositoryCustom.StoredObject::bucket,
+                            Collectors.mapping(BlobRepositoryCustom.StoredObject::key, Collectors.toList())))
+                    .forEach(storageGarbageCollector::enqueueAll);
+        }
+    }
+}
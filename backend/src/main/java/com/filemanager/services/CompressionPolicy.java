@@ -0,0 +1,58 @@
+package com.filemanager.services;
+
+import com.filemanager.models.StorageCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Decides which uploads are stored compressed. Only textual formats are worth
+ * it; images, video and archives are already compressed and would only cost
+ * CPU. Tiny files are skipped since the codec overhead outweighs the saving.
+ */
+@Component
+public class CompressionPolicy {
+
+    private final boolean enabled;
+    private final long minSizeBytes;
+    private final List<MediaType> compressibleTypes;
+
+    public CompressionPolicy(
+            @Value("${app.file.compression.enabled:true}") boolean enabled,
+            @Value("${app.file.compression.min-size-kb:4}") long minSizeKb,
+            @Value("${app.file.compression.content-types:text/*,application/json,application/xml,application/javascript,application/x-ndjson,application/x-yaml,application/csv,image/svg+xml}")
+            List<String> compressibleTypes) {
+        this.enabled = enabled;
+        this.minSizeBytes = minSizeKb * 1024;
+        this.compressibleTypes = compressibleTypes.stream()
+                .map(String::trim)
+                .map(MediaType::parseMediaType)
+                .toList();
+    }
+
+    public StorageCodec codecFor(String contentType, long size) {
+        if (!enabled || size < minSizeBytes) {
+            return StorageCodec.NONE;
+        }
+        return isCompressible(contentType) ? StorageCodec.DEFLATE : StorageCodec.NONE;
+    }
+
+    /**
+     * Whether content of this type is worth compressing, regardless of size
+     * or whether compression at rest is enabled.
+     */
+    public boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return compressibleTypes.stream().anyMatch(type -> type.includes(mediaType));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+}
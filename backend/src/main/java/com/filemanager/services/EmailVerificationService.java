@@ -1,5 +1,6 @@
 package com.filemanager.services;
 
+import com.filemanager.config.PrincipalCache;
 import com.filemanager.models.User;
 import com.filemanager.repositories.UserRepository;
 import com.filemanager.exceptions.ResourceNotFoundException;
@@ -16,15 +17,18 @@ public class EmailVerificationService {
 
     private final UserRepository userRepository;
     private final EmailServiceInterface emailService;
+    private final PrincipalCache principalCache;
     private final Long tokenExpirationHours;
 
     @Autowired
     public EmailVerificationService(
             UserRepository userRepository,
             EmailServiceInterface emailService,
+            PrincipalCache principalCache,
             @Value("${app.verification.token-expiration-hours:24}") Long tokenExpirationHours) {
         this.userRepository = userRepository;
         this.emailService = emailService;
+        this.principalCache = principalCache;
         this.tokenExpirationHours = tokenExpirationHours;
     }
 
@@ -36,7 +40,8 @@ public class EmailVerificationService {
         user.setEmailVerificationToken(token);
         user.setEmailVerificationTokenExpiresAt(expirationTime);
         userRepository.save(user);
-        
+        principalCache.invalidate(user.getEmail());
+
         emailService.sendVerificationEmail(user.getEmail(), user.getName(), token);
     }
 
@@ -59,6 +64,7 @@ public class EmailVerificationService {
         if (updated == 0) {
             throw new ResourceNotFoundException("Could not verify email");
         }
+        principalCache.invalidate(user.getEmail());
     }
 
     @Transactional
@@ -0,0 +1,14 @@
+package com.filemanager.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A ZIP archive of stored files whose entries have been resolved but not yet
+ * read. The archive is built while it is written, so nothing is buffered
+ * beyond the object currently being copied and the start of the next one.
+ */
+public interface FileArchive {
+
+    void writeTo(OutputStream outputStream) throws IOException;
+}
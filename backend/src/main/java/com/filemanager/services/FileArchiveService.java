@@ -0,0 +1,219 @@
+package com.filemanager.services;
+
+import com.filemanager.config.S3Service;
+import com.filemanager.exceptions.ResourceNotFoundException;
+import com.filemanager.models.File;
+import com.filemanager.models.StorageCodec;
+import com.filemanager.models.User;
+import com.filemanager.repositories.FileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Builds ZIP downloads of several files on the fly. Each object is streamed
+ * from storage straight into the archive; while one entry is written the next
+ * object is already opened and its first bytes read, so storage latency is
+ * hidden behind compression. Content that is already compressed is written
+ * without recompressing it.
+ */
+@Service
+public class FileArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileArchiveService.class);
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final FileRepository fileRepository;
+    private final S3Service s3Service;
+    private final CompressionPolicy compressionPolicy;
+    private final Executor prefetchExecutor;
+    private final int maxFiles;
+    private final int prefetchBytes;
+
+    public FileArchiveService(
+            FileRepository fileRepository,
+            S3Service s3Service,
+            CompressionPolicy compressionPolicy,
+            @Qualifier("archivePrefetchExecutor") Executor prefetchExecutor,
+            @Value("${app.file.archive.max-files:1000}") int maxFiles,
+            @Value("${app.file.archive.prefetch-kb:1024}") int prefetchKb) {
+        this.fileRepository = fileRepository;
+        this.s3Service = s3Service;
+        this.compressionPolicy = compressionPolicy;
+        this.prefetchExecutor = prefetchExecutor;
+        this.maxFiles = maxFiles;
+        this.prefetchBytes = prefetchKb * 1024;
+    }
+
+    private record Entry(String name, String bucket, String key, StorageCodec codec,
+                         boolean compress, LocalDateTime modified) {
+    }
+
+    /**
+     * Resolves the files, in the requested order, before anything is written,
+     * so a missing file fails the request while an error status can still be
+     * sent.
+     */
+    @Transactional(readOnly = true)
+    public FileArchive prepareArchive(List<Long> fileIds, User owner) {
+        Set<Long> requested = new LinkedHashSet<>(fileIds);
+        if (requested.isEmpty()) {
+            throw new IllegalArgumentException("No files to download");
+        }
+        if (requested.size() > maxFiles) {
+            throw new IllegalArgumentException("An archive may contain at most " + maxFiles + " files");
+        }
+
+        Map<Long, File> files = fileRepository.findByOwnerAndIdIn(owner, requested).stream()
+                .collect(Collectors.toMap(File::getId, Function.identity()));
+
+        List<Entry> entries = new ArrayList<>(requested.size());
+        Set<String> names = new HashSet<>();
+        for (Long id : requested) {
+            File file = files.get(id);
+            if (file == null) {
+                throw new ResourceNotFoundException("File not found with id: " + id);
+            }
+            entries.add(new Entry(
+                    entryName(file.getOriginalFileName(), names),
+                    file.getS3Bucket(),
+                    file.getS3Key(),
+                    file.getStorageCodec(),
+                    compressionPolicy.isCompressible(file.getContentType()),
+                    file.getCreatedAt()));
+        }
+        return new StreamingFileArchive(entries);
+    }
+
+    /**
+     * Flattens the name to a single path segment and appends " (n)" to names
+     * already in the archive; comparison ignores case so the archive extracts
+     * cleanly on case-insensitive file systems.
+     */
+    private static String entryName(String originalFileName, Set<String> names) {
+        String name = originalFileName == null || originalFileName.isBlank()
+                ? "file"
+                : originalFileName.replace('/', '_').replace('\\', '_');
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+
+        String candidate = name;
+        for (int n = 1; !names.add(candidate.toLowerCase(Locale.ROOT)); n++) {
+            candidate = base + " (" + n + ")" + extension;
+        }
+        return candidate;
+    }
+
+    private final class StreamingFileArchive implements FileArchive {
+
+        private final List<Entry> entries;
+
+        private StreamingFileArchive(List<Entry> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public void writeTo(OutputStream outputStream) throws IOException {
+            ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(outputStream, COPY_BUFFER_SIZE));
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            CompletableFuture<InputStream> next = prefetch(entries.get(0));
+            try {
+                for (int i = 0; i < entries.size(); i++) {
+                    Entry entry = entries.get(i);
+                    CompletableFuture<InputStream> current = next;
+                    next = i + 1 < entries.size() ? prefetch(entries.get(i + 1)) : null;
+
+                    ZipEntry zipEntry = new ZipEntry(entry.name());
+                    if (entry.modified() != null) {
+                        zipEntry.setTimeLocal(entry.modified());
+                    }
+                    // Level 0 keeps already-compressed content streamable; STORED entries need the CRC up front
+                    zip.setLevel(entry.compress() ? Deflater.DEFAULT_COMPRESSION : Deflater.NO_COMPRESSION);
+                    zip.putNextEntry(zipEntry);
+                    try (InputStream inputStream = await(current)) {
+                        int read;
+                        while ((read = inputStream.read(buffer)) != -1) {
+                            zip.write(buffer, 0, read);
+                        }
+                    }
+                    zip.closeEntry();
+                }
+                zip.finish();
+                zip.flush();
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Archive download of {} files aborted", entries.size(), e);
+                throw e;
+            } finally {
+                if (next != null) {
+                    next.whenComplete((inputStream, error) -> closeQuietly(inputStream));
+                }
+            }
+        }
+    }
+
+    private CompletableFuture<InputStream> prefetch(Entry entry) {
+        return CompletableFuture.supplyAsync(() -> {
+            InputStream inputStream = s3Service.getObjectStream(entry.bucket(), entry.key(), entry.codec());
+            try {
+                byte[] head = inputStream.readNBytes(prefetchBytes);
+                return new SequenceInputStream(new ByteArrayInputStream(head), inputStream);
+            } catch (IOException e) {
+                closeQuietly(inputStream);
+                throw new UncheckedIOException(e);
+            }
+        }, prefetchExecutor);
+    }
+
+    private static InputStream await(CompletableFuture<InputStream> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException uncheckedIOException) {
+                throw uncheckedIOException.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Failed to read file for archive", e.getCause());
+        }
+    }
+
+    private static void closeQuietly(InputStream inputStream) {
+        if (inputStream == null) {
+            return;
+        }
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close prefetched archive entry", e);
+        }
+    }
+}
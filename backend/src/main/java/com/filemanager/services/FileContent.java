@@ -0,0 +1,18 @@
+package com.filemanager.services;
+
+import java.io.InputStream;
+
+/**
+ * Lazily opened content of a stored file. Nothing is read from storage until
+ * one of the methods is called, and each call opens a new stream that the
+ * caller must close.
+ */
+public interface FileContent {
+
+    InputStream openStream();
+
+    /**
+     * Opens the inclusive byte range {@code [start, end]}.
+     */
+    InputStream openRange(long start, long end);
+}
@@ -0,0 +1,45 @@
+package com.filemanager.services;
+
+import com.filemanager.models.FileSortKey;
+import com.filemanager.models.FileSummary;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a keyset listing: the sort value and id of the last row
+ * returned. Encoded as opaque URL-safe base64 so clients pass it back
+ * unchanged; the sort it was issued for is part of the token, so a cursor
+ * cannot be replayed against a different ordering.
+ */
+record FileCursor(FileSortKey sortKey, boolean ascending, Object value, long id) {
+
+    static FileCursor after(FileSummary file, FileSortKey sortKey, boolean ascending) {
+        return new FileCursor(sortKey, ascending, sortKey.valueOf(file), file.id());
+    }
+
+    String encode() {
+        // The value goes last so that any separator inside a file name survives
+        String token = sortKey.name() + ':' + (ascending ? "ASC" : "DESC") + ':' + id + ':'
+                + sortKey.format(value);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static FileCursor decode(String cursor, FileSortKey sortKey, boolean ascending) {
+        FileCursor decoded;
+        try {
+            String token = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = token.split(":", 4);
+            FileSortKey decodedKey = FileSortKey.valueOf(parts[0]);
+            decoded = new FileCursor(decodedKey, parts[1].equals("ASC"),
+                    decodedKey.parse(parts[3]), Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (decoded.sortKey() != sortKey || decoded.ascending() != ascending) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+        return decoded;
+    }
+}
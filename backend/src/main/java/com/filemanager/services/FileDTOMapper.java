@@ -1,32 +1,103 @@
 package com.filemanager.services;
 
 import com.filemanager.models.File;
+import com.filemanager.models.FileSummary;
 import com.filemanager.dto.FileDTO;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.util.function.Function;
 
+/**
+ * Maps files to {@link FileDTO}s from entities, from {@link FileSummary}
+ * projections or straight from rows selected with {@link #COLUMNS}. Listings
+ * map thousands of rows, so the URL prefix is built once and each URL is a
+ * single concatenation.
+ */
 @Component
-public class FileDTOMapper implements Function<File, FileDTO> {
-    
-    private final String baseUrl;
+public class FileDTOMapper implements Function<File, FileDTO>, RowMapper<FileDTO> {
+
+    /**
+     * The {@code files} columns {@link #mapRow} reads.
+     */
+    public static final String COLUMNS =
+            "id, file_name, original_file_name, file_size, content_type, created_at, updated_at, user_id, folder_id";
+
+    private static final String DOWNLOAD_SUFFIX = "/download";
+    private static final String THUMBNAIL_SUFFIX = "/thumbnail";
+
+    private final String urlPrefix;
     
     public FileDTOMapper(@Value("${app.base-url:http://localhost:8080}") String baseUrl) {
-        this.baseUrl = baseUrl + "/api/v1/files";
+        this.urlPrefix = baseUrl + "/api/v1/files/";
     }
     
     @Override
     public FileDTO apply(File file) {
-        return new FileDTO(
+        return toDTO(
                 file.getId(),
                 file.getFileName(),
                 file.getOriginalFileName(),
                 file.getFileSize(),
                 file.getContentType(),
-                baseUrl + "/" + file.getId() + "/download",
                 file.getCreatedAt(),
-                file.getOwner().getId()
+                file.getUpdatedAt(),
+                file.getOwner().getId(),
+                // getId() on the lazy proxy does not load the folder
+                file.getFolder() != null ? file.getFolder().getId() : null
+        );
+    }
+
+    public FileDTO fromSummary(FileSummary file) {
+        return toDTO(
+                file.id(),
+                file.fileName(),
+                file.originalFileName(),
+                file.fileSize(),
+                file.contentType(),
+                file.createdAt(),
+                file.updatedAt(),
+                file.ownerId(),
+                file.folderId()
+        );
+    }
+
+    @Override
+    public FileDTO mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return toDTO(
+                rs.getLong("id"),
+                rs.getString("file_name"),
+                rs.getString("original_file_name"),
+                rs.getLong("file_size"),
+                rs.getString("content_type"),
+                rs.getObject("created_at", LocalDateTime.class),
+                rs.getObject("updated_at", LocalDateTime.class),
+                rs.getLong("user_id"),
+                rs.getObject("folder_id", Long.class)
+        );
+    }
+
+    private FileDTO toDTO(Long id, String fileName, String originalFileName, Long fileSize,
+                          String contentType, LocalDateTime createdAt, LocalDateTime updatedAt,
+                          Long ownerId, Long folderId) {
+        return new FileDTO(
+                id,
+                fileName,
+                originalFileName,
+                fileSize,
+                contentType,
+                urlPrefix + id + DOWNLOAD_SUFFIX,
+                ThumbnailService.isSupported(contentType)
+                        ? urlPrefix + id + THUMBNAIL_SUFFIX
+                        : null,
+                createdAt,
+                updatedAt,
+                ownerId,
+                folderId
         );
     }
 }
@@ -0,0 +1,105 @@
+package com.filemanager.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filemanager.models.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Writes every file a user owns without holding them all in memory. Rows
+ * come from a server-side cursor {@code fetchSize} at a time and each is
+ * serialised as soon as it is read, so memory stays flat however many files
+ * there are.
+ */
+@Service
+public class FileExportService {
+
+    private static final String SELECT_BY_OWNER = "SELECT " + FileDTOMapper.COLUMNS
+            + " FROM files WHERE user_id = ? ORDER BY created_at DESC, id DESC";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FileDTOMapper fileDTOMapper;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public FileExportService(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            FileDTOMapper fileDTOMapper,
+            ObjectMapper objectMapper,
+            @Value("${app.file.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        // Postgres only uses a cursor for the fetch size inside a transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.fileDTOMapper = fileDTOMapper;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes the owner's files, newest first, as one JSON array or, with
+     * {@code ndjson}, as one JSON object per line.
+     */
+    public void writeAll(User owner, OutputStream out, boolean ndjson) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (ndjson) {
+                // Lines are separated by the newline after each row, not Jackson's default space
+                generator.setRootValueSeparator(null);
+            } else {
+                generator.writeStartArray();
+            }
+            RowWriter writer = new RowWriter(generator, ndjson);
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.query(SELECT_BY_OWNER, writer, owner.getId()));
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class RowWriter implements RowCallbackHandler {
+
+        private final JsonGenerator generator;
+        private final boolean ndjson;
+        private int rowNum;
+
+        private RowWriter(JsonGenerator generator, boolean ndjson) {
+            this.generator = generator;
+            this.ndjson = ndjson;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                generator.writeObject(fileDTOMapper.mapRow(rs, rowNum++));
+                if (ndjson) {
+                    generator.writeRaw('\n');
+                }
+                // Hand each fetched batch to the client rather than buffering the response
+                if (rowNum % fetchSize == 0) {
+                    generator.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.filemanager.services;
+
+import com.filemanager.dto.FileCursorPage;
+import com.filemanager.dto.FileDTO;
+import com.filemanager.models.FileSortKey;
+import com.filemanager.models.User;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Searches a user's files by name. A term matches names containing it or,
+ * for typos, names with a word similar to it; prefix and extension filters
+ * narrow the results. Every condition is answered from the
+ * {@code (user_id, lower(original_file_name))} trigram and prefix indexes,
+ * so the cost follows the number of matches rather than the number of
+ * files. Results are ordered by name and paged by cursor.
+ */
+@Service
+public class FileSearchService {
+
+    // Shorter terms have no trigrams to look up, so they could only be answered by a scan
+    private static final int MIN_TERM_LENGTH = 3;
+
+    private static final FileSortKey SORT_KEY = FileSortKey.ORIGINAL_FILE_NAME;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final FileDTOMapper fileDTOMapper;
+
+    public FileSearchService(NamedParameterJdbcTemplate jdbcTemplate, FileDTOMapper fileDTOMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fileDTOMapper = fileDTOMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public FileCursorPage search(User owner, String term, String prefix, String extension,
+                                 String cursor, int size) {
+        term = normalize(term);
+        prefix = normalize(prefix);
+        extension = normalize(extension);
+        if (extension != null && extension.startsWith(".")) {
+            extension = normalize(extension.substring(1));
+        }
+        if (term == null && prefix == null && extension == null) {
+            throw new IllegalArgumentException("A search term, prefix or extension is required");
+        }
+        if (term != null && term.length() < MIN_TERM_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Search term must be at least " + MIN_TERM_LENGTH + " characters");
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(FileDTOMapper.COLUMNS)
+                .append(" FROM files WHERE user_id = :userId");
+        MapSqlParameterSource params = new MapSqlParameterSource("userId", owner.getId());
+        if (term != null) {
+            sql.append(" AND (lower(original_file_name) LIKE :contains")
+                    .append(" OR :term <% lower(original_file_name))");
+            params.addValue("contains", "%" + escapeLike(term) + "%")
+                    .addValue("term", term);
+        }
+        if (prefix != null) {
+            sql.append(" AND lower(original_file_name) LIKE :prefix");
+            params.addValue("prefix", escapeLike(prefix) + "%");
+        }
+        if (extension != null) {
+            sql.append(" AND lower(original_file_name) LIKE :extension");
+            params.addValue("extension", "%." + escapeLike(extension));
+        }
+        if (cursor != null && !cursor.isEmpty()) {
+            FileCursor after = FileCursor.decode(cursor, SORT_KEY, true);
+            sql.append(" AND (original_file_name, id) > (:afterName, :afterId)");
+            params.addValue("afterName", after.value())
+                    .addValue("afterId", after.id());
+        }
+        // One extra row tells whether another page follows
+        sql.append(" ORDER BY original_file_name, id LIMIT :limit");
+        params.addValue("limit", size + 1);
+
+        List<FileDTO> files = jdbcTemplate.query(sql.toString(), params, fileDTOMapper);
+        String nextCursor = null;
+        if (files.size() > size) {
+            files = files.subList(0, size);
+            FileDTO last = files.get(size - 1);
+            nextCursor = new FileCursor(SORT_KEY, true, last.originalFileName(), last.id()).encode();
+        }
+        return new FileCursorPage(files, nextCursor, null);
+    }
+
+    private static String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Backslash is Postgres' default LIKE escape character
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
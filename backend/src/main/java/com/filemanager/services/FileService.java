@@ -1,93 +1,427 @@
 package com.filemanager.services;
 
+import com.filemanager.models.Blob;
 import com.filemanager.models.File;
+import com.filemanager.models.FileSortKey;
+import com.filemanager.models.FileSummary;
+import com.filemanager.models.StorageCodec;
 import com.filemanager.models.User;
 import com.filemanager.repositories.FileRepository;
+import com.filemanager.config.AsyncS3Service;
 import com.filemanager.config.S3Buckets;
 import com.filemanager.config.S3Service;
+import com.filemanager.dto.AsyncFileDownload;
+import com.filemanager.dto.FileCursorPage;
 import com.filemanager.dto.FileDTO;
+import com.filemanager.dto.FileDownload;
+import com.filemanager.dto.FileFromHashRequest;
 import com.filemanager.dto.FileUploadResponse;
+import com.filemanager.dto.PresignedUploadCompleteRequest;
+import com.filemanager.dto.PresignedUploadRequest;
+import com.filemanager.dto.PresignedUploadResponse;
+import com.filemanager.dto.PresignedUrlDTO;
+import com.filemanager.dto.StorageUsageDTO;
+import com.filemanager.exceptions.DuplicateResourceException;
+import com.filemanager.exceptions.QuotaExceededException;
 import com.filemanager.exceptions.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 @Service
 public class FileService {
 
-    private static final long MAX_FILE_SIZE = 50 * 1024 * 1024; // 50 MB
+    private static final Logger logger = LoggerFactory.getLogger(FileService.class);
 
     private final FileRepository fileRepository;
     private final FileDTOMapper fileDTOMapper;
     private final S3Service s3Service;
+    private final AsyncS3Service asyncS3Service;
     private final S3Buckets s3Buckets;
+    private final BlobService blobService;
+    private final StorageGarbageCollector storageGarbageCollector;
+    private final ThumbnailService thumbnailService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CompressionPolicy compressionPolicy;
+    private final StorageUsageService storageUsageService;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor transferCompletionExecutor;
+    private final long maxFileSizeMb;
+    private final Duration presignedUrlTtl;
 
     public FileService(
             FileRepository fileRepository,
             FileDTOMapper fileDTOMapper,
             S3Service s3Service,
-            S3Buckets s3Buckets) {
+            AsyncS3Service asyncS3Service,
+            S3Buckets s3Buckets,
+            BlobService blobService,
+            StorageGarbageCollector storageGarbageCollector,
+            ThumbnailService thumbnailService,
+            ApplicationEventPublisher eventPublisher,
+            CompressionPolicy compressionPolicy,
+            StorageUsageService storageUsageService,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("transferCompletionExecutor") Executor transferCompletionExecutor,
+            @Value("${app.file.max-size-mb:50}") long maxFileSizeMb,
+            @Value("${app.file.presigned-url-ttl-minutes:15}") long presignedUrlTtlMinutes) {
         this.fileRepository = fileRepository;
         this.fileDTOMapper = fileDTOMapper;
         this.s3Service = s3Service;
+        this.asyncS3Service = asyncS3Service;
         this.s3Buckets = s3Buckets;
+        this.blobService = blobService;
+        this.storageGarbageCollector = storageGarbageCollector;
+        this.thumbnailService = thumbnailService;
+        this.eventPublisher = eventPublisher;
+        this.compressionPolicy = compressionPolicy;
+        this.storageUsageService = storageUsageService;
+        this.transactionTemplate = transactionTemplate;
+        this.transferCompletionExecutor = transferCompletionExecutor;
+        this.maxFileSizeMb = maxFileSizeMb;
+        this.presignedUrlTtl = Duration.ofMinutes(presignedUrlTtlMinutes);
     }
 
-    @Transactional
     public FileUploadResponse uploadFile(MultipartFile multipartFile, User owner) {
+        String originalFileName = validateUpload(multipartFile);
+        String fileName = newFileName(originalFileName);
+        String s3Key = objectKey(owner, fileName);
+        StorageCodec codec = compressionPolicy.codecFor(multipartFile.getContentType(), multipartFile.getSize());
+
+        // Rejected before any bytes reach storage; released again if the upload fails
+        return storageUsageService.withReservation(owner, multipartFile.getSize(), reservation -> {
+            BlobService.StoredContent stored;
+            try (InputStream inputStream = multipartFile.getInputStream()) {
+                stored = blobService.upload(s3Buckets.getFiles(), s3Key, inputStream, multipartFile.getSize(), codec);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to upload file", e);
+            }
+
+            try {
+                return transactionTemplate.execute(status -> {
+                    Blob blob = blobService.register(stored);
+                    File file = new File(
+                            fileName,
+                            originalFileName,
+                            multipartFile.getSize(),
+                            multipartFile.getContentType(),
+                            blob.getS3Key(),
+                            blob.getS3Bucket(),
+                            owner
+                    );
+                    file.setBlob(blob);
+                    file.setStorageCodec(blob.getStorageCodec());
+                    file.setStoredSize(blob.getStoredSize());
+
+                    File savedFile = saveWithNewContent(file);
+                    storageUsageService.recordAdded(owner, 1, file.getFileSize(), reservation);
+                    return toUploadResponse(savedFile, "File uploaded successfully");
+                });
+            } catch (RuntimeException e) {
+                discard(stored);
+                throw e;
+            }
+        });
+    }
+
+    // Nothing references the object once its transaction rolls back, so the collector takes it
+    private void discard(BlobService.StoredContent stored) {
+        try {
+            storageGarbageCollector.enqueue(stored.bucket(), stored.key());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to queue object {}/{} of a failed upload for deletion",
+                    stored.bucket(), stored.key(), e);
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #uploadFile}. The multipart body is moved
+     * (not copied) to a temporary file, which the async client streams to S3
+     * without holding a thread; the returned future completes once the file
+     * row is saved. Content is not deduplicated on this path, as that would
+     * mean reading the whole file on the request thread to hash it.
+     */
+    public CompletableFuture<FileUploadResponse> uploadFileAsync(MultipartFile multipartFile, User owner) {
+        String originalFileName = validateUpload(multipartFile);
+        String fileName = newFileName(originalFileName);
+        String s3Key = objectKey(owner, fileName);
+        String bucket = s3Buckets.getFiles();
+        long size = multipartFile.getSize();
+
+        StorageUsageService.Reservation reservation = storageUsageService.reserve(owner, size);
+        Path tempFile;
+        try {
+            tempFile = Files.createTempFile("upload-", null);
+            multipartFile.transferTo(tempFile.toFile());
+        } catch (IOException e) {
+            storageUsageService.release(reservation);
+            throw new RuntimeException("Failed to upload file", e);
+        }
+
+        File file = new File(
+                fileName,
+                originalFileName,
+                multipartFile.getSize(),
+                multipartFile.getContentType(),
+                s3Key,
+                bucket,
+                owner
+        );
+        return asyncS3Service.putObject(bucket, s3Key, tempFile)
+                .thenApplyAsync(ignored -> transactionTemplate.execute(status -> {
+                    File savedFile = saveWithNewContent(file);
+                    storageUsageService.recordAdded(owner, 1, size, reservation);
+                    return toUploadResponse(savedFile, "File uploaded successfully");
+                }), transferCompletionExecutor)
+                .whenComplete((response, error) -> {
+                    try {
+                        Files.deleteIfExists(tempFile);
+                    } catch (IOException e) {
+                        logger.warn("Failed to delete temporary upload file {}", tempFile, e);
+                    }
+                    if (error != null) {
+                        storageUsageService.release(reservation);
+                        asyncS3Service.deleteObject(bucket, s3Key);
+                    }
+                });
+    }
+
+    /**
+     * Checks an uploaded part is non-empty, within the size limit and named.
+     *
+     * @return the original file name
+     */
+    public String validateUpload(MultipartFile multipartFile) {
         if (multipartFile.isEmpty()) {
             throw new IllegalArgumentException("File cannot be empty");
         }
 
-        if (multipartFile.getSize() > MAX_FILE_SIZE) {
-            throw new IllegalArgumentException("File size exceeds maximum allowed size of 50 MB");
+        if (multipartFile.getSize() > maxFileSizeMb * 1024 * 1024) {
+            throw new IllegalArgumentException(
+                    "File size exceeds maximum allowed size of " + maxFileSizeMb + " MB");
         }
 
         String originalFileName = multipartFile.getOriginalFilename();
         if (originalFileName == null || originalFileName.trim().isEmpty()) {
             throw new IllegalArgumentException("File name cannot be empty");
         }
+        return originalFileName;
+    }
 
-        String fileExtension = getFileExtension(originalFileName);
-        String fileName = UUID.randomUUID().toString() + fileExtension;
-        String s3Key = "files/" + owner.getId() + "/" + fileName;
+    /**
+     * Creates a file from content the owner has already uploaded, identified by
+     * its SHA-256 hash, without transferring or storing any bytes. Only the
+     * owner's own content can be referenced, so a hash alone never grants
+     * access to another user's data.
+     */
+    public FileUploadResponse createFileFromHash(FileFromHashRequest request, User owner) {
+        String sha256 = request.sha256().toLowerCase();
+        Long size = transactionTemplate.execute(status -> findOwnContent(owner, sha256).getBlob().getSize());
 
-        try {
-            byte[] fileBytes = multipartFile.getBytes();
-            s3Service.putObject(s3Buckets.getFiles(), s3Key, fileBytes);
+        // Shared content still counts in full towards each owner's usage
+        return storageUsageService.withReservation(owner, size, reservation -> transactionTemplate.execute(status -> {
+            File existing = findOwnContent(owner, sha256);
+            Blob blob = existing.getBlob();
+            blobService.addReference(blob);
 
+            String contentType = request.contentType() != null && !request.contentType().isBlank()
+                    ? request.contentType()
+                    : existing.getContentType();
             File file = new File(
-                    fileName,
-                    originalFileName,
-                    multipartFile.getSize(),
-                    multipartFile.getContentType(),
-                    s3Key,
-                    s3Buckets.getFiles(),
+                    newFileName(request.fileName()),
+                    request.fileName(),
+                    blob.getSize(),
+                    contentType,
+                    blob.getS3Key(),
+                    blob.getS3Bucket(),
                     owner
             );
+            file.setBlob(blob);
+            file.setStorageCodec(blob.getStorageCodec());
+            file.setStoredSize(blob.getStoredSize());
 
             File savedFile = fileRepository.save(file);
+            storageUsageService.recordAdded(owner, 1, file.getFileSize(), reservation);
+            return toUploadResponse(savedFile, "File created from existing content");
+        }));
+    }
 
-            return new FileUploadResponse(
-                    savedFile.getId(),
-                    savedFile.getFileName(),
-                    savedFile.getOriginalFileName(),
-                    savedFile.getFileSize(),
-                    savedFile.getContentType(),
-                    "File uploaded successfully"
-            );
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to upload file", e);
+    private File findOwnContent(User owner, String sha256) {
+        return fileRepository.findFirstByOwnerAndBlobSha256(owner, sha256)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "No stored content with hash: " + sha256));
+    }
+
+    /**
+     * Issues a URL for uploading straight to storage, bypassing the application.
+     * No file exists until {@link #completePresignedUpload} is called.
+     */
+    public PresignedUploadResponse createPresignedUpload(PresignedUploadRequest request, User owner) {
+        if (request.fileSize() > maxFileSizeMb * 1024 * 1024) {
+            throw new IllegalArgumentException(
+                    "File size exceeds maximum allowed size of " + maxFileSizeMb + " MB");
+        }
+        // Checked, not reserved: nothing is held for URLs that are never used
+        checkQuota(owner, request.fileSize());
+
+        String s3Key = objectKey(owner, newFileName(request.fileName()));
+        PresignedUrlDTO upload = s3Service.presignPutObject(
+                s3Buckets.getFiles(), s3Key, contentTypeOrDefault(request.contentType()),
+                request.fileSize(), presignedUrlTtl);
+        return new PresignedUploadResponse(s3Key, upload);
+    }
+
+    /**
+     * Records the file for a finished presigned upload. The key must be one of
+     * the owner's, not yet recorded and not queued for deletion; the size is
+     * taken from storage rather than trusted from the client.
+     */
+    public FileUploadResponse completePresignedUpload(PresignedUploadCompleteRequest request, User owner) {
+        String s3Key = request.uploadKey();
+        String keyPrefix = objectKey(owner, "");
+        String fileName = s3Key.startsWith(keyPrefix) ? s3Key.substring(keyPrefix.length()) : "";
+        if (fileName.isEmpty() || fileName.contains("/")) {
+            throw new IllegalArgumentException("Invalid upload key");
+        }
+        if (fileRepository.existsByS3Key(s3Key)) {
+            throw new DuplicateResourceException("Upload has already been completed");
+        }
+        String bucket = s3Buckets.getFiles();
+        // A deleted file's key, or one cleaned up after a failed upload, must not come back
+        if (storageGarbageCollector.isQueued(bucket, s3Key)) {
+            throw new IllegalArgumentException("Upload is no longer available");
+        }
+
+        long size = s3Service.headObject(bucket, s3Key);
+        if (size > maxFileSizeMb * 1024 * 1024) {
+            s3Service.deleteObject(bucket, s3Key);
+            throw new IllegalArgumentException(
+                    "File size exceeds maximum allowed size of " + maxFileSizeMb + " MB");
+        }
+        StorageUsageService.Reservation reservation;
+        try {
+            reservation = storageUsageService.reserve(owner, size);
+        } catch (QuotaExceededException e) {
+            s3Service.deleteObject(bucket, s3Key);
+            throw e;
+        }
+
+        File file = new File(
+                fileName,
+                request.fileName(),
+                size,
+                contentTypeOrDefault(request.contentType()),
+                s3Key,
+                bucket,
+                owner
+        );
+        try {
+            return transactionTemplate.execute(status -> {
+                FileUploadResponse response = saveStoredFile(file, reservation, "File uploaded successfully");
+                fileRepository.flush();
+                return response;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // The unique index is the final word when two completions race for a key
+            storageUsageService.release(reservation);
+            throw new DuplicateResourceException("Upload has already been completed");
+        } catch (RuntimeException e) {
+            storageUsageService.release(reservation);
+            throw e;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public PresignedUrlDTO getDownloadUrl(Long fileId, User owner) {
+        File file = fileRepository.findByIdAndOwner(fileId, owner)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "File not found with id: " + fileId));
+        return s3Service.presignGetObject(file.getS3Bucket(), file.getS3Key(),
+                file.getOriginalFileName(), file.getContentType(), file.getStorageCodec(), presignedUrlTtl);
+    }
+
+    private static String contentTypeOrDefault(String contentType) {
+        return contentType != null && !contentType.isBlank() ? contentType : "application/octet-stream";
+    }
+
+    /**
+     * Stored name for a new file: a random UUID keeping the original extension.
+     */
+    public String newFileName(String originalFileName) {
+        return UUID.randomUUID() + getFileExtension(originalFileName);
+    }
+
+    public String objectKey(User owner, String fileName) {
+        return "files/" + owner.getId() + "/" + fileName;
+    }
+
+    /**
+     * Records a file whose content is already in storage, e.g. one assembled
+     * from the chunks of an upload session, consuming the
+     * {@linkplain StorageUsageService#reserve reservation} the caller took for it.
+     */
+    @Transactional
+    public FileUploadResponse saveStoredFile(File file, StorageUsageService.Reservation reservation, String message) {
+        File savedFile = saveWithNewContent(file);
+        storageUsageService.recordAdded(file.getOwner(), 1, file.getFileSize(), reservation);
+        return toUploadResponse(savedFile, message);
+    }
+
+    /**
+     * Fails fast for an upload that could not fit in the owner's quota,
+     * without reserving anything.
+     */
+    public void checkQuota(User owner, long size) {
+        StorageUsageDTO usage = storageUsageService.getUsage(owner);
+        if (usage.quotaSize() > 0 && usage.totalSize() + size > usage.quotaSize()) {
+            throw new QuotaExceededException("Storage quota exceeded");
         }
     }
 
+    /**
+     * Saves a file whose content was just stored and lets listeners, such as
+     * thumbnail generation, know once the row is committed.
+     */
+    private File saveWithNewContent(File file) {
+        File savedFile = fileRepository.save(file);
+        eventPublisher.publishEvent(FileStoredEvent.of(savedFile));
+        return savedFile;
+    }
+
+    private FileUploadResponse toUploadResponse(File file, String message) {
+        return new FileUploadResponse(
+                file.getId(),
+                file.getFileName(),
+                file.getOriginalFileName(),
+                file.getFileSize(),
+                file.getContentType(),
+                message
+        );
+    }
+
+    @Transactional(readOnly = true)
     public FileDTO getFileById(Long fileId, User owner) {
         File file = fileRepository.findByIdAndOwner(fileId, owner)
                 .orElseThrow(() -> new ResourceNotFoundException(
@@ -95,16 +429,41 @@ public class FileService {
         return fileDTOMapper.apply(file);
     }
 
+    @Transactional(readOnly = true)
     public Page<FileDTO> getUserFiles(User owner, Pageable pageable) {
-        return fileRepository.findByOwner(owner, pageable)
-                .map(fileDTOMapper);
+        return fileRepository.findSummariesByOwner(owner, pageable)
+                .map(fileDTOMapper::fromSummary);
     }
 
-    public List<FileDTO> getAllUserFiles(User owner) {
-        return fileRepository.findByOwner(owner)
-                .stream()
-                .map(fileDTOMapper)
-                .collect(Collectors.toList());
+    /**
+     * Keyset page of the owner's files: seeks past {@code cursor} rather than
+     * counting through an offset, so every page costs the same. The total is
+     * a separate COUNT(*) and only run when asked for.
+     */
+    @Transactional(readOnly = true)
+    public FileCursorPage getUserFilesAfter(User owner, String cursor, int size,
+                                            String sortBy, String sortDir, boolean includeTotal) {
+        FileSortKey sortKey = FileSortKey.fromProperty(sortBy);
+        boolean ascending = sortDir.equalsIgnoreCase("ASC");
+        FileCursor after = cursor == null || cursor.isEmpty()
+                ? null
+                : FileCursor.decode(cursor, sortKey, ascending);
+
+        // One extra row tells whether another page follows
+        List<FileSummary> files = fileRepository.findByOwnerAfter(owner, sortKey, ascending,
+                after == null ? null : after.value(),
+                after == null ? null : after.id(),
+                size + 1);
+        String nextCursor = null;
+        if (files.size() > size) {
+            files = files.subList(0, size);
+            nextCursor = FileCursor.after(files.get(size - 1), sortKey, ascending).encode();
+        }
+
+        return new FileCursorPage(
+                files.stream().map(fileDTOMapper::fromSummary).collect(Collectors.toList()),
+                nextCursor,
+                includeTotal ? fileRepository.countByOwner(owner) : null);
     }
 
     @Transactional
@@ -114,19 +473,93 @@ public class FileService {
                         "File not found with id: " + fileId));
 
         try {
-            s3Service.deleteObject(file.getS3Bucket(), file.getS3Key());
+            // Storage is cleaned up by the collector once this commits; no remote call here
             fileRepository.delete(file);
+            storageUsageService.recordRemoved(owner, 1, file.getFileSize());
+            if (file.getBlob() != null) {
+                blobService.release(file.getBlob());
+            } else {
+                storageGarbageCollector.enqueue(file.getS3Bucket(), file.getS3Key());
+            }
         } catch (Exception e) {
             throw new RuntimeException("Failed to delete file", e);
         }
     }
 
-    public byte[] downloadFile(Long fileId, User owner) {
+    /**
+     * Looks up the file once; storage is only touched when the returned content
+     * is opened, so callers can serve whole files or byte ranges from it.
+     */
+    @Transactional(readOnly = true)
+    public FileDownload downloadFile(Long fileId, User owner) {
+        File file = fileRepository.findWithBlobByIdAndOwner(fileId, owner)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "File not found with id: " + fileId));
+
+        return new FileDownload(
+                fileDTOMapper.apply(file),
+                contentETag(file),
+                new StoredFileContent(s3Service, file.getS3Bucket(), file.getS3Key(), file.getStorageCodec()));
+    }
+
+    /**
+     * Non-blocking variant of {@link #downloadFile}: the lookup happens now,
+     * storage is only contacted once the returned content is requested.
+     */
+    @Transactional(readOnly = true)
+    public AsyncFileDownload downloadFileAsync(Long fileId, User owner) {
+        File file = fileRepository.findWithBlobByIdAndOwner(fileId, owner)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "File not found with id: " + fileId));
+
+        // Stored bytes are sent as they are; compressed content goes out with its Content-Encoding
+        String contentEncoding = file.getStorageCodec().getContentEncoding();
+        String eTag = contentETag(file);
+        if (contentEncoding != null) {
+            eTag = eTag.substring(0, eTag.length() - 1) + "-" + contentEncoding + "\"";
+        }
+        String bucket = file.getS3Bucket();
+        String key = file.getS3Key();
+        return new AsyncFileDownload(
+                fileDTOMapper.apply(file),
+                eTag,
+                file.getStoredSize(),
+                contentEncoding,
+                () -> asyncS3Service.getObject(bucket, key));
+    }
+
+    /**
+     * Strong entity tag for a file's content. Content never changes once
+     * stored, so the blob hash identifies it; files stored before
+     * deduplication have no hash and use a digest of their unique key.
+     */
+    private static String contentETag(File file) {
+        String tag = file.getBlob() != null
+                ? file.getBlob().getSha256()
+                : DigestUtils.md5DigestAsHex(file.getS3Key().getBytes(StandardCharsets.UTF_8));
+        return "\"" + tag + "\"";
+    }
+
+    /**
+     * Opens the thumbnail closest to {@code size}. A missing thumbnail of a
+     * supported image is queued for generation, so a later request finds it.
+     */
+    @Transactional(readOnly = true)
+    public InputStream openThumbnail(Long fileId, User owner, int size) {
         File file = fileRepository.findByIdAndOwner(fileId, owner)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "File not found with id: " + fileId));
+        if (!ThumbnailService.isSupported(file.getContentType())) {
+            throw new ResourceNotFoundException("No thumbnail for file with id: " + fileId);
+        }
 
-        return s3Service.getObject(file.getS3Bucket(), file.getS3Key());
+        try {
+            return thumbnailService.open(file.getS3Bucket(), file.getS3Key(), thumbnailService.sizeFor(size));
+        } catch (ResourceNotFoundException e) {
+            thumbnailService.request(file.getS3Bucket(), file.getS3Key(), file.getContentType(),
+                    file.getStorageCodec(), file.getFileSize());
+            throw new ResourceNotFoundException("Thumbnail not generated yet for file with id: " + fileId);
+        }
     }
 
     private String getFileExtension(String filename) {
@@ -137,12 +570,22 @@ public class FileService {
         return filename.substring(lastDotIndex);
     }
 
-    public long getUserFileCount(User owner) {
-        return fileRepository.countByOwner(owner);
+    @Transactional(readOnly = true)
+    public StorageUsageDTO getStorageUsage(User owner) {
+        return storageUsageService.getUsage(owner);
     }
 
-    public long getUserTotalFileSize(User owner) {
-        Long totalSize = fileRepository.getTotalFileSizeByOwner(owner);
-        return totalSize != null ? totalSize : 0L;
+    private record StoredFileContent(S3Service s3Service, String bucket, String key, StorageCodec codec)
+            implements FileContent {
+
+        @Override
+        public InputStream openStream() {
+            return s3Service.getObjectStream(bucket, key, codec);
+        }
+
+        @Override
+        public InputStream openRange(long start, long end) {
+            return s3Service.getObjectStream(bucket, key, start, end, codec);
+        }
     }
 }
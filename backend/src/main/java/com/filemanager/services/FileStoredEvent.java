@@ -0,0 +1,23 @@
+package com.filemanager.services;
+
+import com.filemanager.models.File;
+import com.filemanager.models.StorageCodec;
+
+/**
+ * Published when a file row with new content is saved. Listeners that need
+ * the row to be visible should run after the transaction commits.
+ */
+public record FileStoredEvent(
+        Long fileId,
+        String bucket,
+        String key,
+        String contentType,
+        StorageCodec codec,
+        long size
+) {
+
+    public static FileStoredEvent of(File file) {
+        return new FileStoredEvent(file.getId(), file.getS3Bucket(), file.getS3Key(),
+                file.getContentType(), file.getStorageCodec(), file.getFileSize());
+    }
+}
@@ -0,0 +1,22 @@
+package com.filemanager.services;
+
+import com.filemanager.dto.FolderDTO;
+import com.filemanager.models.Folder;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+@Component
+public class FolderDTOMapper implements Function<Folder, FolderDTO> {
+
+    @Override
+    public FolderDTO apply(Folder folder) {
+        return new FolderDTO(
+                folder.getId(),
+                folder.getName(),
+                folder.getParentId(),
+                folder.getCreatedAt(),
+                folder.getUpdatedAt()
+        );
+    }
+}
@@ -0,0 +1,216 @@
+package com.filemanager.services;
+
+import com.filemanager.config.ReadYourWritesTracker;
+import com.filemanager.dto.CreateFolderRequest;
+import com.filemanager.dto.FileCursorPage;
+import com.filemanager.dto.FileDTO;
+import com.filemanager.dto.FolderDTO;
+import com.filemanager.dto.FolderUsageDTO;
+import com.filemanager.exceptions.DuplicateResourceException;
+import com.filemanager.exceptions.ResourceNotFoundException;
+import com.filemanager.models.File;
+import com.filemanager.models.FileSortKey;
+import com.filemanager.models.FileSummary;
+import com.filemanager.models.Folder;
+import com.filemanager.models.User;
+import com.filemanager.repositories.FileRepository;
+import com.filemanager.repositories.FolderRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Folders of files. Each folder stores the path of its ancestors' ids (see
+ * {@link Folder}), so listing a folder reads only its own children, a
+ * subtree is one index range, and moving a subtree is a single update of
+ * folder rows; stored objects are never copied. Changes pin the owner's
+ * reads to the primary (see {@link ReadYourWritesTracker}).
+ */
+@Service
+public class FolderService {
+
+    private static final FileSortKey FILE_SORT_KEY = FileSortKey.ORIGINAL_FILE_NAME;
+
+    private final FolderRepository folderRepository;
+    private final FileRepository fileRepository;
+    private final FolderDTOMapper folderDTOMapper;
+    private final FileDTOMapper fileDTOMapper;
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    public FolderService(
+            FolderRepository folderRepository,
+            FileRepository fileRepository,
+            FolderDTOMapper folderDTOMapper,
+            FileDTOMapper fileDTOMapper,
+            ReadYourWritesTracker readYourWritesTracker) {
+        this.folderRepository = folderRepository;
+        this.fileRepository = fileRepository;
+        this.folderDTOMapper = folderDTOMapper;
+        this.fileDTOMapper = fileDTOMapper;
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    @Transactional
+    public FolderDTO createFolder(CreateFolderRequest request, User owner) {
+        // The parent's path must not change under a concurrent move before the child is saved
+        folderRepository.lockForMove(owner.getId());
+        Folder parent = request.parentId() != null ? getOwnedFolder(request.parentId(), owner) : null;
+        String name = request.name().trim();
+        requireUniqueName(owner, request.parentId(), name);
+        readYourWritesTracker.markWritten(owner);
+        return folderDTOMapper.apply(saveUnique(new Folder(name, owner, parent)));
+    }
+
+    @Transactional(readOnly = true)
+    public FolderDTO getFolder(Long folderId, User owner) {
+        return folderDTOMapper.apply(getOwnedFolder(folderId, owner));
+    }
+
+    /**
+     * Direct subfolders of {@code parentId}, or the top-level folders when it
+     * is null, in name order.
+     */
+    @Transactional(readOnly = true)
+    public List<FolderDTO> getSubfolders(Long parentId, User owner) {
+        if (parentId != null) {
+            getOwnedFolder(parentId, owner);
+        }
+        return folderRepository.findByOwnerAndParentIdOrderByNameAscIdAsc(owner, parentId)
+                .stream()
+                .map(folderDTOMapper)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Files directly in {@code folderId}, or at the top level when it is
+     * null, in name order and paged by cursor.
+     */
+    @Transactional(readOnly = true)
+    public FileCursorPage getFiles(Long folderId, String cursor, int size, User owner) {
+        Folder folder = folderId != null ? getOwnedFolder(folderId, owner) : null;
+        FileCursor after = cursor == null || cursor.isEmpty()
+                ? null
+                : FileCursor.decode(cursor, FILE_SORT_KEY, true);
+
+        // One extra row tells whether another page follows
+        List<FileSummary> files = fileRepository.findInFolderAfter(owner, folder,
+                after == null ? null : (String) after.value(),
+                after == null ? null : after.id(),
+                size + 1);
+        String nextCursor = null;
+        if (files.size() > size) {
+            files = files.subList(0, size);
+            nextCursor = FileCursor.after(files.get(size - 1), FILE_SORT_KEY, true).encode();
+        }
+        return new FileCursorPage(
+                files.stream().map(fileDTOMapper::fromSummary).collect(Collectors.toList()),
+                nextCursor,
+                null);
+    }
+
+    /**
+     * Counts everything below the folder at any depth; the cost follows the
+     * size of the subtree, not of the owner's whole collection.
+     */
+    @Transactional(readOnly = true)
+    public FolderUsageDTO getUsage(Long folderId, User owner) {
+        Folder folder = getOwnedFolder(folderId, owner);
+        FolderRepository.SubtreeUsage usage =
+                folderRepository.getSubtreeUsage(owner.getId(), folder.getId(), folder.getChildPath());
+        return new FolderUsageDTO(folder.getId(), usage.getFolderCount(), usage.getFileCount(), usage.getTotalSize());
+    }
+
+    @Transactional
+    public FolderDTO renameFolder(Long folderId, String name, User owner) {
+        Folder folder = getOwnedFolder(folderId, owner);
+        String newName = name.trim();
+        if (!newName.equalsIgnoreCase(folder.getName())) {
+            requireUniqueName(owner, folder.getParentId(), newName);
+        }
+        folder.setName(newName);
+        readYourWritesTracker.markWritten(owner);
+        return folderDTOMapper.apply(saveUnique(folder));
+    }
+
+    /**
+     * Moves the folder, with everything in it, under {@code parentId} or to
+     * the top level when it is null.
+     */
+    @Transactional
+    public FolderDTO moveFolder(Long folderId, Long parentId, User owner) {
+        // Paths are read after the lock, so they cannot change under a concurrent move
+        folderRepository.lockForMove(owner.getId());
+        Folder folder = getOwnedFolder(folderId, owner);
+        if (Objects.equals(folder.getParentId(), parentId)) {
+            return folderDTOMapper.apply(folder);
+        }
+
+        String newPath = Folder.ROOT_PATH;
+        if (parentId != null) {
+            Folder parent = getOwnedFolder(parentId, owner);
+            if (parent.getId().equals(folder.getId()) || parent.getPath().startsWith(folder.getChildPath())) {
+                throw new IllegalArgumentException("A folder cannot be moved into itself");
+            }
+            newPath = parent.getChildPath();
+        }
+        requireUniqueName(owner, parentId, folder.getName());
+
+        String oldChildPath = folder.getChildPath();
+        folderRepository.moveSubtree(owner.getId(), folder.getId(), parentId, newPath,
+                oldChildPath, oldChildPath.length(), newPath + folder.getId() + "/");
+        readYourWritesTracker.markWritten(owner);
+        return folderDTOMapper.apply(getOwnedFolder(folderId, owner));
+    }
+
+    /**
+     * Puts a file in {@code folderId}, or at the top level when it is null.
+     */
+    @Transactional
+    public FileDTO moveFile(Long fileId, Long folderId, User owner) {
+        File file = fileRepository.findByIdAndOwner(fileId, owner)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "File not found with id: " + fileId));
+        // The entity update bumps updatedAt, so cached metadata revalidates
+        file.setFolder(folderId != null ? getOwnedFolder(folderId, owner) : null);
+        readYourWritesTracker.markWritten(owner);
+        return fileDTOMapper.apply(fileRepository.save(file));
+    }
+
+    /**
+     * Deletes an empty folder.
+     */
+    @Transactional
+    public void deleteFolder(Long folderId, User owner) {
+        Folder folder = getOwnedFolder(folderId, owner);
+        if (folderRepository.existsByParentId(folder.getId()) || fileRepository.existsByFolderId(folder.getId())) {
+            throw new IllegalStateException("Folder is not empty");
+        }
+        folderRepository.delete(folder);
+        readYourWritesTracker.markWritten(owner);
+    }
+
+    public Folder getOwnedFolder(Long folderId, User owner) {
+        return folderRepository.findByIdAndOwner(folderId, owner)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Folder not found with id: " + folderId));
+    }
+
+    private void requireUniqueName(User owner, Long parentId, String name) {
+        if (folderRepository.existsByOwnerAndParentIdAndNameIgnoreCase(owner, parentId, name)) {
+            throw new DuplicateResourceException("A folder named '" + name + "' already exists here");
+        }
+    }
+
+    // The unique index is the final word when two requests race for a name
+    private Folder saveUnique(Folder folder) {
+        try {
+            return folderRepository.saveAndFlush(folder);
+        } catch (DataIntegrityViolationException e) {
+            throw new DuplicateResourceException("A folder named '" + folder.getName() + "' already exists here");
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.filemanager.services;
+
+import com.filemanager.config.S3Service;
+import com.filemanager.models.PendingDeletion;
+import com.filemanager.repositories.PendingDeletionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes storage objects after the rows referencing them are gone. Callers
+ * {@link #enqueue} an object in the transaction that drops its last
+ * reference, which costs one insert and no remote call; the scheduled
+ * collector then removes queued objects in {@code DeleteObjects} batches.
+ * Failed deletions are retried with exponential backoff.
+ * <p>
+ * Storage calls run outside any transaction: a batch is claimed with a short
+ * lease, deleted, then removed from the queue, so no connection is held while
+ * waiting on storage and several instances can collect at once.
+ */
+@Service
+public class StorageGarbageCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageGarbageCollector.class);
+    private static final String METRIC_NAME = "storage.gc";
+
+    private final PendingDeletionRepository pendingDeletionRepository;
+    private final S3Service s3Service;
+    private final ThumbnailService thumbnailService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration lease;
+    private final Duration backoffBase;
+    private final Duration backoffMax;
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong oldestAgeSeconds = new AtomicLong();
+    private final Counter deletedCounter;
+    private final Counter failedCounter;
+
+    public StorageGarbageCollector(
+            PendingDeletionRepository pendingDeletionRepository,
+            S3Service s3Service,
+            ThumbnailService thumbnailService,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.storage.gc.batch-size:1000}") int batchSize,
+            @Value("${app.storage.gc.max-batches-per-run:10}") int maxBatchesPerRun,
+            @Value("${app.storage.gc.lease-seconds:300}") long leaseSeconds,
+            @Value("${app.storage.gc.backoff-base-seconds:30}") long backoffBaseSeconds,
+            @Value("${app.storage.gc.backoff-max-seconds:21600}") long backoffMaxSeconds) {
+        this.pendingDeletionRepository = pendingDeletionRepository;
+        this.s3Service = s3Service;
+        this.thumbnailService = thumbnailService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.backoffBase = Duration.ofSeconds(backoffBaseSeconds);
+        this.backoffMax = Duration.ofSeconds(backoffMaxSeconds);
+
+        Gauge.builder(METRIC_NAME + ".backlog", backlog, AtomicLong::get)
+                .description("Storage objects waiting to be deleted")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_NAME + ".oldest.age", oldestAgeSeconds, AtomicLong::get)
+                .description("Age of the oldest storage object waiting to be deleted")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.deletedCounter = Counter.builder(METRIC_NAME + ".deleted")
+                .description("Storage objects deleted by the collector")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder(METRIC_NAME + ".failed")
+                .description("Storage deletions that failed and were rescheduled")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the object for deletion. Joins the caller's transaction, so the
+     * deletion only happens if the caller commits.
+     */
+    @Transactional
+    public void enqueue(String bucket, String key) {
+        pendingDeletionRepository.save(new PendingDeletion(bucket, key));
+    }
+
+    @Transactional
+    public void enqueueAll(String bucket, Collection<String> keys) {
+        pendingDeletionRepository.saveAll(keys.stream()
+                .map(key -> new PendingDeletion(bucket, key))
+                .toList());
+    }
+
+    /**
+     * Whether the object is queued for deletion. Asks the primary, where a
+     * deletion enqueued a moment ago is already visible.
+     */
+    @Transactional
+    public boolean isQueued(String bucket, String key) {
+        return pendingDeletionRepository.existsByS3BucketAndS3Key(bucket, key);
+    }
+
+    @Scheduled(fixedDelayString = "${app.storage.gc.interval-ms:10000}")
+    public void collect() {
+        try {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                if (collectBatch() < batchSize) {
+                    break;
+                }
+            }
+        } finally {
+            refreshBacklog();
+        }
+    }
+
+    private int collectBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<PendingDeletion> claimed = transactionTemplate.execute(
+                status -> pendingDeletionRepository.claimDue(now, now.plus(lease), batchSize));
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, List<PendingDeletion>> byBucket = new HashMap<>();
+        for (PendingDeletion deletion : claimed) {
+            byBucket.computeIfAbsent(deletion.getS3Bucket(), bucket -> new ArrayList<>()).add(deletion);
+        }
+
+        List<Long> deleted = new ArrayList<>();
+        List<PendingDeletion> failed = new ArrayList<>();
+        byBucket.forEach((bucket, deletions) -> {
+            // Thumbnails go with their content; a failure there only leaves a small orphan
+            List<String> keys = new ArrayList<>();
+            for (PendingDeletion deletion : deletions) {
+                keys.add(deletion.getS3Key());
+                keys.addAll(thumbnailService.thumbnailKeys(deletion.getS3Key()));
+            }
+            Set<String> failedKeys = s3Service.deleteObjects(bucket, keys);
+            for (PendingDeletion deletion : deletions) {
+                if (failedKeys.contains(deletion.getS3Key())) {
+                    failed.add(deletion);
+                } else {
+                    deleted.add(deletion.getId());
+                }
+            }
+        });
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!deleted.isEmpty()) {
+                pendingDeletionRepository.deleteAllByIdInBatch(deleted);
+            }
+            LocalDateTime retryFrom = LocalDateTime.now();
+            for (PendingDeletion deletion : failed) {
+                int attempts = deletion.getAttempts() + 1;
+                pendingDeletionRepository.reschedule(deletion.getId(), attempts,
+                        retryFrom.plus(backoff(attempts)), "Failed to delete object from storage");
+            }
+        });
+
+        deletedCounter.increment(deleted.size());
+        failedCounter.increment(failed.size());
+        if (failed.isEmpty()) {
+            logger.debug("Collected {} storage objects", deleted.size());
+        } else {
+            logger.warn("Collected {} storage objects, {} failed and will be retried", deleted.size(), failed.size());
+        }
+        return claimed.size();
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = backoffBase.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(backoffMax) > 0 ? backoffMax : delay;
+    }
+
+    private void refreshBacklog() {
+        try {
+            backlog.set(pendingDeletionRepository.count());
+            LocalDateTime oldest = pendingDeletionRepository.findOldestCreatedAt();
+            oldestAgeSeconds.set(oldest != null
+                    ? Math.max(0, Duration.between(oldest, LocalDateTime.now()).toSeconds())
+                    : 0);
+        } catch (Exception e) {
+            logger.warn("Failed to refresh storage garbage collection backlog", e);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.filemanager.services;
+
+import com.filemanager.config.S3Buckets;
+import com.filemanager.config.S3Service;
+import com.filemanager.dto.ReconciliationReport;
+import com.filemanager.repositories.FileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Finds storage objects no row references (left by a crash between the PUT
+ * and the insert) and rows whose object is gone (left by manual bucket
+ * cleanups). Both sides are walked in key order, storage through paged
+ * {@code ListObjectsV2} and the database through keyset-paged queries, and
+ * merged like two sorted files, so memory use does not depend on how many
+ * objects there are.
+ * <p>
+ * In repair mode orphans are queued for the {@link StorageGarbageCollector}.
+ * Objects younger than the grace period are left alone since their row may
+ * still be on its way, and dangling rows are only reported: deleting user
+ * metadata is left to an operator.
+ */
+@Service
+public class StorageReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageReconciliationService.class);
+    private static final String PREFIX = "files/";
+    private static final int SAMPLE_SIZE = 100;
+
+    private final FileRepository fileRepository;
+    private final S3Service s3Service;
+    private final S3Buckets s3Buckets;
+    private final StorageGarbageCollector storageGarbageCollector;
+    private final boolean scheduledRepair;
+    private final Duration gracePeriod;
+    private final int pageSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ReconciliationReport lastReport;
+
+    public StorageReconciliationService(
+            FileRepository fileRepository,
+            S3Service s3Service,
+            S3Buckets s3Buckets,
+            StorageGarbageCollector storageGarbageCollector,
+            @Value("${app.storage.reconciliation.repair:false}") boolean scheduledRepair,
+            @Value("${app.storage.reconciliation.grace-hours:24}") long graceHours,
+            @Value("${app.storage.reconciliation.page-size:1000}") int pageSize) {
+        this.fileRepository = fileRepository;
+        this.s3Service = s3Service;
+        this.s3Buckets = s3Buckets;
+        this.storageGarbageCollector = storageGarbageCollector;
+        this.scheduledRepair = scheduledRepair;
+        this.gracePeriod = Duration.ofHours(graceHours);
+        this.pageSize = pageSize;
+    }
+
+    @Scheduled(cron = "${app.storage.reconciliation.cron:0 0 3 * * *}")
+    public void scheduledReconcile() {
+        try {
+            reconcile(scheduledRepair);
+        } catch (IllegalStateException e) {
+            logger.info("Skipping scheduled reconciliation: {}", e.getMessage());
+        }
+    }
+
+    public ReconciliationReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Runs a full pass. Only one pass runs at a time per instance.
+     */
+    public ReconciliationReport reconcile(boolean repair) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Reconciliation is already running");
+        }
+        try {
+            ReconciliationReport report = new Pass(s3Buckets.getFiles(), repair).run();
+            lastReport = report;
+            logger.info("Reconciliation of {}/{} scanned {} objects and {} keys: {} orphaned ({} queued for deletion, {} too recent), {} dangling",
+                    report.bucket(), report.prefix(), report.objectsScanned(), report.keysScanned(),
+                    report.orphanedObjects(), report.orphansQueuedForDeletion(), report.recentObjectsSkipped(),
+                    report.danglingKeys());
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private final class Pass {
+
+        private final String bucket;
+        private final boolean repair;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final Instant graceCutoff = Instant.now().minus(gracePeriod);
+
+        private long objectsScanned;
+        private long keysScanned;
+        private long orphanedObjects;
+        private long orphanedBytes;
+        private long recentObjectsSkipped;
+        private long orphansQueued;
+        private long danglingKeys;
+        private final List<String> orphanSamples = new ArrayList<>();
+        private final List<String> danglingSamples = new ArrayList<>();
+        private final List<String> pendingOrphans = new ArrayList<>();
+
+        private Pass(String bucket, boolean repair) {
+            this.bucket = bucket;
+            this.repair = repair;
+        }
+
+        private ReconciliationReport run() {
+            Iterator<S3Object> objects = s3Service.listObjects(bucket, PREFIX).iterator();
+            Iterator<String> keys = new ReferencedKeys(bucket);
+
+            S3Object object = nextObject(objects);
+            String key = nextKey(keys);
+            while (object != null || key != null) {
+                int order = object == null ? 1
+                        : key == null ? -1
+                        : S3Service.compareKeys(object.key(), key);
+                if (order < 0) {
+                    orphan(object);
+                    object = nextObject(objects);
+                } else if (order > 0) {
+                    dangling(key);
+                    key = nextKey(keys);
+                } else {
+                    object = nextObject(objects);
+                    key = nextKey(keys);
+                }
+            }
+            flushOrphans();
+
+            return new ReconciliationReport(bucket, PREFIX, repair, startedAt, LocalDateTime.now(),
+                    objectsScanned, keysScanned, orphanedObjects, orphanedBytes, recentObjectsSkipped,
+                    orphansQueued, danglingKeys, orphanSamples, danglingSamples);
+        }
+
+        private S3Object nextObject(Iterator<S3Object> objects) {
+            if (!objects.hasNext()) {
+                return null;
+            }
+            objectsScanned++;
+            return objects.next();
+        }
+
+        private String nextKey(Iterator<String> keys) {
+            if (!keys.hasNext()) {
+                return null;
+            }
+            keysScanned++;
+            return keys.next();
+        }
+
+        private void orphan(S3Object object) {
+            if (object.lastModified() != null && object.lastModified().isAfter(graceCutoff)) {
+                recentObjectsSkipped++;
+                return;
+            }
+            orphanedObjects++;
+            orphanedBytes += object.size() != null ? object.size() : 0;
+            if (orphanSamples.size() < SAMPLE_SIZE) {
+                orphanSamples.add(object.key());
+            }
+            if (repair) {
+                pendingOrphans.add(object.key());
+                if (pendingOrphans.size() >= pageSize) {
+                    flushOrphans();
+                }
+            }
+        }
+
+        private void dangling(String key) {
+            danglingKeys++;
+            if (danglingSamples.size() < SAMPLE_SIZE) {
+                danglingSamples.add(key);
+            }
+            logger.warn("Storage object missing for referenced key {}/{}", bucket, key);
+        }
+
+        private void flushOrphans() {
+            if (pendingOrphans.isEmpty()) {
+                return;
+            }
+            storageGarbageCollector.enqueueAll(bucket, pendingOrphans);
+            orphansQueued += pendingOrphans.size();
+            pendingOrphans.clear();
+        }
+    }
+
+    /**
+     * Keys referenced by the database, fetched one keyset page at a time.
+     */
+    private final class ReferencedKeys implements Iterator<String> {
+
+        private final String bucket;
+        private Iterator<String> page = Collections.emptyIterator();
+        private String lastKey = "";
+        private boolean exhausted;
+
+        private ReferencedKeys(String bucket) {
+            this.bucket = bucket;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!page.hasNext() && !exhausted) {
+                List<String> keys = fileRepository.findReferencedKeysAfter(bucket, PREFIX + "%", lastKey, pageSize);
+                exhausted = keys.size() < pageSize;
+                if (!keys.isEmpty()) {
+                    lastKey = keys.get(keys.size() - 1);
+                }
+                page = keys.iterator();
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.next();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.filemanager.services;
+
+import com.filemanager.config.ReadYourWritesTracker;
+import com.filemanager.dto.StorageUsageDTO;
+import com.filemanager.exceptions.QuotaExceededException;
+import com.filemanager.models.User;
+import com.filemanager.repositories.UserStorageUsageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Per-user file counts, bytes stored and quotas.
+ * <p>
+ * Usage is updated in the same transaction as the files it counts, so it can
+ * never disagree with them. Quotas are enforced with reservations taken
+ * before any bytes are written: a reservation commits on its own, so
+ * concurrent uploads see each other's, and is turned into usage when the
+ * file is saved. Reservations are taken and released outside any other
+ * transaction, so an upload never holds two pooled connections at once;
+ * {@link #withReservation} releases one whose upload fails. A reservation
+ * that is never released, because its instance died mid-upload, expires
+ * after {@code app.file.reservation-ttl-minutes}.
+ * <p>
+ * Every file added or removed passes through here, which is also where the
+ * owner's reads are pinned to the primary until replicas have seen the
+ * change.
+ */
+@Service
+public class StorageUsageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageUsageService.class);
+
+    private final UserStorageUsageRepository usageRepository;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final TransactionTemplate transactionTemplate;
+    private final long defaultQuotaBytes;
+    private final Duration reservationTtl;
+
+    public StorageUsageService(
+            UserStorageUsageRepository usageRepository,
+            ReadYourWritesTracker readYourWritesTracker,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.file.quota-mb:10240}") long defaultQuotaMb,
+            @Value("${app.file.reservation-ttl-minutes:120}") long reservationTtlMinutes) {
+        this.usageRepository = usageRepository;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultQuotaBytes = defaultQuotaMb * 1024 * 1024;
+        this.reservationTtl = Duration.ofMinutes(reservationTtlMinutes);
+    }
+
+    /**
+     * Bytes of an owner's quota held for one upload.
+     */
+    public record Reservation(Long id, long bytes) {
+    }
+
+    /**
+     * Holds {@code bytes} of the owner's quota for an upload about to be
+     * written. The caller must {@link #release} the reservation if the upload
+     * fails before {@link #recordAdded} turns it into usage. Must not be
+     * called inside a transaction.
+     *
+     * @throws QuotaExceededException if the bytes do not fit in the quota
+     */
+    public Reservation reserve(User owner, long bytes) {
+        requireNoTransaction();
+        Long id = transactionTemplate.execute(status -> {
+            if (usageRepository.reserve(owner.getId(), bytes, defaultQuotaBytes) == 0) {
+                return null;
+            }
+            return usageRepository.addReservation(owner.getId(), bytes, LocalDateTime.now().plus(reservationTtl));
+        });
+        if (id == null) {
+            throw new QuotaExceededException("Storage quota exceeded");
+        }
+        return new Reservation(id, bytes);
+    }
+
+    /**
+     * Reserves {@code bytes}, runs {@code upload} and releases the
+     * reservation if it fails. The upload must record its files with
+     * {@link #recordAdded} in a transaction of its own.
+     *
+     * @throws QuotaExceededException if the bytes do not fit in the quota
+     */
+    public <T> T withReservation(User owner, long bytes, Function<Reservation, T> upload) {
+        Reservation reservation = reserve(owner, bytes);
+        try {
+            return upload.apply(reservation);
+        } catch (RuntimeException | Error e) {
+            release(reservation);
+            throw e;
+        }
+    }
+
+    public void release(Reservation reservation) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> usageRepository.releaseReservation(reservation.id()));
+        } catch (RuntimeException e) {
+            // Left for expireReservations to give back
+            logger.warn("Failed to release reservation {} of {} bytes", reservation.id(), reservation.bytes(), e);
+        }
+    }
+
+    /**
+     * Gives back the bytes of reservations that outlived their uploads.
+     */
+    @Scheduled(fixedDelayString = "${app.file.reservation-sweep-interval-ms:60000}")
+    public void expireReservations() {
+        Integer users = transactionTemplate.execute(status -> usageRepository.expireReservations(LocalDateTime.now()));
+        if (users != null && users > 0) {
+            logger.info("Expired abandoned storage reservations of {} users", users);
+        }
+    }
+
+    private static void requireNoTransaction() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Quota reservations must be made outside a transaction");
+        }
+    }
+
+    /**
+     * Counts newly saved files, consuming the reservation taken for them.
+     * Must run in the transaction that saves the files.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAdded(User owner, long files, long bytes, Reservation reservation) {
+        usageRepository.addFiles(owner.getId(), files, bytes);
+        usageRepository.releaseReservation(reservation.id());
+        readYourWritesTracker.markWritten(owner);
+    }
+
+    /**
+     * Must run in the transaction that deletes the files.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRemoved(User owner, long files, long bytes) {
+        usageRepository.removeFiles(owner.getId(), files, bytes);
+        readYourWritesTracker.markWritten(owner);
+    }
+
+    @Transactional(readOnly = true)
+    public StorageUsageDTO getUsage(User owner) {
+        return usageRepository.findById(owner.getId())
+                .map(usage -> new StorageUsageDTO(
+                        usage.getFileCount(),
+                        usage.getTotalBytes(),
+                        quota(usage.getQuotaBytes() != null ? usage.getQuotaBytes() : defaultQuotaBytes)))
+                .orElseGet(() -> new StorageUsageDTO(0, 0, quota(defaultQuotaBytes)));
+    }
+
+    private static long quota(long quotaBytes) {
+        return Math.max(quotaBytes, 0);
+    }
+}
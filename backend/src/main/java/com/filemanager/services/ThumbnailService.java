@@ -0,0 +1,239 @@
+package com.filemanager.services;
+
+import com.filemanager.config.S3Service;
+import com.filemanager.models.StorageCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Generates JPEG thumbnails of uploaded images at a few fixed sizes, so file
+ * listings can show previews without downloading originals. Generation runs
+ * on a small bounded pool once the upload has committed; when the pool is
+ * saturated the work is dropped and redone the first time the thumbnail is
+ * asked for.
+ * <p>
+ * Thumbnails are stored next to the content they derive from, under
+ * {@code thumbnails/<content key>/<size>.jpg}. Deduplicated files share
+ * content and therefore share thumbnails.
+ */
+@Service
+public class ThumbnailService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailService.class);
+    private static final String KEY_PREFIX = "thumbnails/";
+    private static final Set<String> SUPPORTED_TYPES = Arrays.stream(ImageIO.getReaderMIMETypes())
+            .map(type -> type.toLowerCase(Locale.ROOT))
+            .collect(Collectors.toUnmodifiableSet());
+
+    private final S3Service s3Service;
+    private final Executor thumbnailExecutor;
+    private final List<Integer> sizes;
+    private final long maxSourceBytes;
+    private final long maxSourcePixels;
+    private final float quality;
+
+    // Content keys with a generation queued or running, so repeated requests do not pile up
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public ThumbnailService(
+            S3Service s3Service,
+            @Qualifier("thumbnailExecutor") Executor thumbnailExecutor,
+            @Value("${app.thumbnail.sizes:128,256,512}") List<Integer> sizes,
+            @Value("${app.thumbnail.max-source-size-mb:50}") long maxSourceSizeMb,
+            @Value("${app.thumbnail.max-source-megapixels:50}") long maxSourceMegapixels,
+            @Value("${app.thumbnail.quality:0.85}") float quality) {
+        this.s3Service = s3Service;
+        this.thumbnailExecutor = thumbnailExecutor;
+        this.sizes = sizes.stream().sorted().distinct().toList();
+        this.maxSourceBytes = maxSourceSizeMb * 1024 * 1024;
+        this.maxSourcePixels = maxSourceMegapixels * 1_000_000;
+        this.quality = quality;
+    }
+
+    public static boolean isSupported(String contentType) {
+        return contentType != null && SUPPORTED_TYPES.contains(contentType.toLowerCase(Locale.ROOT));
+    }
+
+    public static String thumbnailKey(String key, int size) {
+        return KEY_PREFIX + key + "/" + size + ".jpg";
+    }
+
+    /**
+     * Keys of every thumbnail that may exist for the content at {@code key}.
+     */
+    public List<String> thumbnailKeys(String key) {
+        return sizes.stream().map(size -> thumbnailKey(key, size)).toList();
+    }
+
+    /**
+     * The smallest generated size at least as large as {@code requested}, or
+     * the largest size if none is.
+     */
+    public int sizeFor(int requested) {
+        return sizes.stream()
+                .filter(size -> size >= requested)
+                .findFirst()
+                .orElse(sizes.get(sizes.size() - 1));
+    }
+
+    /**
+     * Opens a stored thumbnail.
+     *
+     * @throws com.filemanager.exceptions.ResourceNotFoundException if it has not been generated
+     */
+    public InputStream open(String bucket, String key, int size) {
+        return s3Service.getObjectStream(bucket, thumbnailKey(key, size));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onFileStored(FileStoredEvent event) {
+        request(event.bucket(), event.key(), event.contentType(), event.codec(), event.size());
+    }
+
+    /**
+     * Queues thumbnail generation for the content, unless it is unsupported,
+     * too large, already queued, or the pool is saturated.
+     */
+    public void request(String bucket, String key, String contentType, StorageCodec codec, long size) {
+        if (!isSupported(contentType) || size > maxSourceBytes || !inFlight.add(key)) {
+            return;
+        }
+        try {
+            thumbnailExecutor.execute(() -> {
+                try {
+                    generate(bucket, key, codec);
+                } catch (Exception e) {
+                    logger.warn("Failed to generate thumbnails for {}/{}", bucket, key, e);
+                } finally {
+                    inFlight.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key);
+            logger.warn("Thumbnail queue is full, skipping {}/{}", bucket, key);
+        }
+    }
+
+    private void generate(String bucket, String key, StorageCodec codec) throws IOException {
+        BufferedImage image = read(bucket, key, codec);
+        if (image == null) {
+            return;
+        }
+        // Largest first, each size scaled down from the previous one
+        for (int size : sizes.stream().sorted(Comparator.reverseOrder()).toList()) {
+            image = scale(image, size);
+            s3Service.putObject(bucket, thumbnailKey(key, size), encode(image));
+        }
+        logger.debug("Generated {} thumbnails for {}/{}", sizes.size(), bucket, key);
+    }
+
+    /**
+     * Decodes the image, subsampling while reading so a large photo is never
+     * held in memory at full resolution. Returns null for content that cannot
+     * be decoded or is too large.
+     */
+    private BufferedImage read(String bucket, String key, StorageCodec codec) throws IOException {
+        try (InputStream inputStream = s3Service.getObjectStream(bucket, key, codec);
+             ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+            if (!readers.hasNext()) {
+                logger.debug("No image reader for {}/{}", bucket, key);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInputStream, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxSourcePixels) {
+                    logger.info("Skipping thumbnails for {}/{}: {}x{} is too large", bucket, key, width, height);
+                    return null;
+                }
+                int largest = sizes.get(sizes.size() - 1);
+                int subsampling = Math.max(1, Math.max(width, height) / (2 * largest));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Fits the image within {@code size} x {@code size}, never enlarging it.
+     * Large reductions are done in halving steps, since a single bilinear pass
+     * skips most source pixels and aliases. Transparency is flattened onto white.
+     */
+    private static BufferedImage scale(BufferedImage source, int size) {
+        double ratio = Math.min(1.0, (double) size / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private byte[] encode(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(outputStream)) {
+            writer.setOutput(imageOutputStream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return outputStream.toByteArray();
+    }
+}
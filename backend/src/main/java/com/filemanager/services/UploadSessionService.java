@@ -0,0 +1,396 @@
+package com.filemanager.services;
+
+import com.filemanager.config.S3Buckets;
+import com.filemanager.config.S3Service;
+import com.filemanager.dto.ByteRangeDTO;
+import com.filemanager.dto.FileUploadResponse;
+import com.filemanager.dto.UploadSessionDTO;
+import com.filemanager.dto.UploadSessionRequest;
+import com.filemanager.exceptions.ResourceNotFoundException;
+import com.filemanager.models.File;
+import com.filemanager.models.UploadSession;
+import com.filemanager.models.UploadSessionPart;
+import com.filemanager.models.UploadSessionStatus;
+import com.filemanager.models.User;
+import com.filemanager.repositories.UploadSessionPartRepository;
+import com.filemanager.repositories.UploadSessionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Resumable uploads. Each chunk of a session is streamed straight into one part
+ * of an S3 multipart upload, so chunks can arrive in any order, in parallel and
+ * more than once, and the server never buffers more than what is in flight on
+ * a connection. Chunk PUTs deliberately run outside any transaction: a slow
+ * client must not pin a database connection for the length of its upload.
+ * Likewise, completing and aborting only hold a row lock long enough to
+ * claim the session; storage is called after that transaction commits.
+ */
+@Service
+public class UploadSessionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadSessionService.class);
+
+    // S3 limits: at most 10,000 parts, each but the last at least 5 MB
+    private static final int MAX_PARTS = 10_000;
+    private static final long MIN_CHUNK_SIZE = 5L * 1024 * 1024;
+
+    // A completion still claiming its session after this long has died part-way
+    private static final Duration COMPLETION_TIMEOUT = Duration.ofHours(1);
+
+    private record ClaimedSession(UploadSession session, SortedMap<Integer, String> partETags) {
+    }
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final UploadSessionPartRepository uploadSessionPartRepository;
+    private final FileService fileService;
+    private final StorageUsageService storageUsageService;
+    private final StorageGarbageCollector storageGarbageCollector;
+    private final TransactionTemplate transactionTemplate;
+    private final S3Service s3Service;
+    private final S3Buckets s3Buckets;
+    private final long chunkSize;
+    private final long sessionTtlHours;
+    private final long maxFileSizeMb;
+
+    public UploadSessionService(
+            UploadSessionRepository uploadSessionRepository,
+            UploadSessionPartRepository uploadSessionPartRepository,
+            FileService fileService,
+            StorageUsageService storageUsageService,
+            StorageGarbageCollector storageGarbageCollector,
+            TransactionTemplate transactionTemplate,
+            S3Service s3Service,
+            S3Buckets s3Buckets,
+            @Value("${app.upload.chunk-size-mb:8}") long chunkSizeMb,
+            @Value("${app.upload.session-ttl-hours:24}") long sessionTtlHours,
+            @Value("${app.file.max-size-mb:50}") long maxFileSizeMb) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.uploadSessionPartRepository = uploadSessionPartRepository;
+        this.fileService = fileService;
+        this.storageUsageService = storageUsageService;
+        this.storageGarbageCollector = storageGarbageCollector;
+        this.transactionTemplate = transactionTemplate;
+        this.s3Service = s3Service;
+        this.s3Buckets = s3Buckets;
+        this.chunkSize = Math.max(chunkSizeMb * 1024 * 1024, MIN_CHUNK_SIZE);
+        this.sessionTtlHours = sessionTtlHours;
+        this.maxFileSizeMb = maxFileSizeMb;
+    }
+
+    /**
+     * Starts the multipart upload before the session row exists, so the row is
+     * flushed in its own short transaction; any failure from there on aborts
+     * the upload rather than leaving its parts to accrue storage.
+     */
+    public UploadSessionDTO createSession(UploadSessionRequest request, User owner) {
+        long totalSize = request.totalSize();
+        if (totalSize > maxFileSizeMb * 1024 * 1024) {
+            throw new IllegalArgumentException(
+                    "File size exceeds maximum allowed size of " + maxFileSizeMb + " MB");
+        }
+        fileService.checkQuota(owner, totalSize);
+
+        // Grow the chunk size for very large files so the part count stays within S3's limit
+        long sessionChunkSize = Math.max(chunkSize, ceilDiv(totalSize, MAX_PARTS));
+        int chunkCount = (int) ceilDiv(totalSize, sessionChunkSize);
+
+        String contentType = request.contentType() != null && !request.contentType().isBlank()
+                ? request.contentType()
+                : "application/octet-stream";
+        String bucket = s3Buckets.getFiles();
+        String s3Key = fileService.objectKey(owner, fileService.newFileName(request.fileName()));
+        String uploadId = s3Service.createMultipartUpload(bucket, s3Key);
+
+        UploadSession session = new UploadSession(
+                UUID.randomUUID().toString(),
+                owner,
+                request.fileName(),
+                contentType,
+                totalSize,
+                sessionChunkSize,
+                chunkCount,
+                s3Key,
+                bucket,
+                uploadId,
+                LocalDateTime.now().plusHours(sessionTtlHours)
+        );
+        try {
+            transactionTemplate.executeWithoutResult(status -> uploadSessionRepository.saveAndFlush(session));
+        } catch (RuntimeException | Error e) {
+            s3Service.abortMultipartUpload(bucket, s3Key, uploadId);
+            throw e;
+        }
+        return toDTO(session, List.of());
+    }
+
+    public UploadSessionDTO getSession(String sessionId, User owner) {
+        UploadSession session = findSession(sessionId, owner);
+        return toDTO(session, uploadSessionPartRepository.findBySessionIdOrderByPartNumber(sessionId));
+    }
+
+    /**
+     * Streams one chunk into its multipart upload part. Re-sending a chunk
+     * replaces it, which is how clients retry after a dropped connection.
+     */
+    public void uploadChunk(String sessionId, int chunkIndex, InputStream inputStream,
+                            long contentLength, User owner) {
+        UploadSession session = findSession(sessionId, owner);
+        requireActive(session);
+
+        if (chunkIndex < 0 || chunkIndex >= session.getChunkCount()) {
+            throw new IllegalArgumentException(
+                    "Chunk index must be between 0 and " + (session.getChunkCount() - 1));
+        }
+        long expectedSize = session.expectedChunkSize(chunkIndex);
+        if (contentLength != expectedSize) {
+            throw new IllegalArgumentException(
+                    "Chunk " + chunkIndex + " must be exactly " + expectedSize + " bytes");
+        }
+
+        int partNumber = chunkIndex + 1;
+        String eTag = s3Service.uploadPart(session.getS3Bucket(), session.getS3Key(),
+                session.getS3UploadId(), partNumber, inputStream, contentLength);
+        uploadSessionPartRepository.savePart(sessionId, partNumber, eTag, contentLength);
+    }
+
+    /**
+     * Assembles the chunks into the final object and records the file. The
+     * session is first claimed under a row lock, so concurrent completions
+     * cannot both succeed; the object is assembled after that commits and
+     * the file recorded in a second transaction.
+     */
+    public FileUploadResponse completeSession(String sessionId, User owner) {
+        ClaimedSession claimed = transactionTemplate.execute(status -> claimForCompletion(sessionId, owner));
+        UploadSession session = claimed.session();
+
+        // Before the object is assembled, so an upload over quota can still be aborted cleanly
+        StorageUsageService.Reservation reservation;
+        try {
+            reservation = storageUsageService.reserve(owner, session.getTotalSize());
+        } catch (RuntimeException e) {
+            reopen(sessionId);
+            throw e;
+        }
+
+        try {
+            s3Service.completeMultipartUpload(session.getS3Bucket(), session.getS3Key(),
+                    session.getS3UploadId(), claimed.partETags());
+        } catch (Exception e) {
+            storageUsageService.release(reservation);
+            reopen(sessionId);
+            logger.error("Failed to complete upload session {}", sessionId, e);
+            throw new RuntimeException("Failed to complete upload", e);
+        }
+
+        try {
+            return transactionTemplate.execute(status -> recordCompleted(session, owner, reservation));
+        } catch (RuntimeException e) {
+            // The parts are gone now, so the session cannot be retried; drop the assembled object
+            storageUsageService.release(reservation);
+            discardAssembled(session);
+            throw e;
+        }
+    }
+
+    private ClaimedSession claimForCompletion(String sessionId, User owner) {
+        UploadSession session = uploadSessionRepository.findByIdAndOwnerForUpdate(sessionId, owner)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Upload session not found with id: " + sessionId));
+        requireActive(session);
+
+        List<UploadSessionPart> parts = uploadSessionPartRepository.findBySessionIdOrderByPartNumber(sessionId);
+        if (parts.size() != session.getChunkCount()) {
+            throw new IllegalStateException("Upload session is missing "
+                    + (session.getChunkCount() - parts.size()) + " of " + session.getChunkCount() + " chunks");
+        }
+        SortedMap<Integer, String> partETags = new TreeMap<>();
+        parts.forEach(part -> partETags.put(part.getPartNumber(), part.getETag()));
+
+        session.setStatus(UploadSessionStatus.COMPLETING);
+        return new ClaimedSession(session, partETags);
+    }
+
+    private FileUploadResponse recordCompleted(UploadSession claimed, User owner,
+                                               StorageUsageService.Reservation reservation) {
+        String s3Key = claimed.getS3Key();
+        File file = new File(
+                s3Key.substring(s3Key.lastIndexOf('/') + 1),
+                claimed.getOriginalFileName(),
+                claimed.getTotalSize(),
+                claimed.getContentType(),
+                s3Key,
+                claimed.getS3Bucket(),
+                owner
+        );
+        FileUploadResponse response = fileService.saveStoredFile(file, reservation, "File uploaded successfully");
+
+        UploadSession session = uploadSessionRepository.getReferenceById(claimed.getId());
+        session.setStatus(UploadSessionStatus.COMPLETED);
+        session.setFileId(response.fileId());
+        uploadSessionPartRepository.deleteBySessionId(claimed.getId());
+        return response;
+    }
+
+    /**
+     * Hands a claimed session back to the client after a completion failed
+     * before anything was assembled, so it can be retried.
+     */
+    private void reopen(String sessionId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> uploadSessionRepository.findById(sessionId)
+                    .filter(session -> session.getStatus() == UploadSessionStatus.COMPLETING)
+                    .ifPresent(session -> session.setStatus(UploadSessionStatus.ACTIVE)));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to reopen upload session {}", sessionId, e);
+        }
+    }
+
+    /**
+     * Marks the session aborted and queues whatever object it may have
+     * assembled for deletion. No file row can point at that object: the row
+     * and the session's completion are recorded together.
+     */
+    private void discardAssembled(UploadSession session) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                uploadSessionRepository.getReferenceById(session.getId()).setStatus(UploadSessionStatus.ABORTED);
+                uploadSessionPartRepository.deleteBySessionId(session.getId());
+                storageGarbageCollector.enqueue(session.getS3Bucket(), session.getS3Key());
+            });
+        } catch (RuntimeException e) {
+            logger.error("Failed to discard assembled object of upload session {}; reconciliation will find it",
+                    session.getId(), e);
+        }
+    }
+
+    public void abortSession(String sessionId, User owner) {
+        UploadSession session = transactionTemplate.execute(status -> {
+            UploadSession locked = uploadSessionRepository.findByIdAndOwnerForUpdate(sessionId, owner)
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                            "Upload session not found with id: " + sessionId));
+            requireActive(locked);
+            markAborted(locked);
+            return locked;
+        });
+        abortUpload(session);
+    }
+
+    /**
+     * Aborts sessions that outlived their TTL so their parts stop costing
+     * storage, and cleans up after completions that died part-way.
+     */
+    @Scheduled(fixedDelayString = "${app.upload.cleanup-interval-ms:3600000}")
+    public void abortExpiredSessions() {
+        List<UploadSession> expired = transactionTemplate.execute(status -> {
+            List<UploadSession> sessions = uploadSessionRepository.findTop100ByStatusAndExpiresAtBefore(
+                    UploadSessionStatus.ACTIVE, LocalDateTime.now());
+            sessions.forEach(this::markAborted);
+            return sessions;
+        });
+        expired.forEach(this::abortUpload);
+        if (!expired.isEmpty()) {
+            logger.info("Aborted {} expired upload sessions", expired.size());
+        }
+
+        List<UploadSession> stalled = transactionTemplate.execute(status -> {
+            List<UploadSession> sessions = uploadSessionRepository.findTop100ByStatusAndUpdatedAtBefore(
+                    UploadSessionStatus.COMPLETING, LocalDateTime.now().minus(COMPLETION_TIMEOUT));
+            sessions.forEach(session -> {
+                markAborted(session);
+                storageGarbageCollector.enqueue(session.getS3Bucket(), session.getS3Key());
+            });
+            return sessions;
+        });
+        stalled.forEach(this::abortUpload);
+        if (!stalled.isEmpty()) {
+            logger.info("Cleaned up {} stalled upload session completions", stalled.size());
+        }
+    }
+
+    private void markAborted(UploadSession session) {
+        session.setStatus(UploadSessionStatus.ABORTED);
+        uploadSessionPartRepository.deleteBySessionId(session.getId());
+    }
+
+    // Runs once the session is recorded as aborted; parts left behind by a failure here are only storage cost
+    private void abortUpload(UploadSession session) {
+        try {
+            s3Service.abortMultipartUpload(session.getS3Bucket(), session.getS3Key(), session.getS3UploadId());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to abort multipart upload of session {}", session.getId(), e);
+        }
+    }
+
+    private UploadSession findSession(String sessionId, User owner) {
+        return uploadSessionRepository.findByIdAndOwner(sessionId, owner)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Upload session not found with id: " + sessionId));
+    }
+
+    private static void requireActive(UploadSession session) {
+        if (session.getStatus() != UploadSessionStatus.ACTIVE) {
+            throw new IllegalStateException("Upload session is " + session.getStatus().name().toLowerCase());
+        }
+        if (session.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new IllegalStateException("Upload session has expired");
+        }
+    }
+
+    private static UploadSessionDTO toDTO(UploadSession session, List<UploadSessionPart> parts) {
+        List<Integer> receivedChunks = new ArrayList<>(parts.size());
+        List<ByteRangeDTO> receivedRanges = new ArrayList<>();
+        long rangeStart = -1;
+        long rangeEnd = -1;
+        for (UploadSessionPart part : parts) {
+            int index = part.getPartNumber() - 1;
+            receivedChunks.add(index);
+
+            long start = index * session.getChunkSize();
+            long end = start + part.getSize() - 1;
+            if (rangeStart != -1 && start == rangeEnd + 1) {
+                rangeEnd = end;
+            } else {
+                if (rangeStart != -1) {
+                    receivedRanges.add(new ByteRangeDTO(rangeStart, rangeEnd));
+                }
+                rangeStart = start;
+                rangeEnd = end;
+            }
+        }
+        if (rangeStart != -1) {
+            receivedRanges.add(new ByteRangeDTO(rangeStart, rangeEnd));
+        }
+
+        return new UploadSessionDTO(
+                session.getId(),
+                session.getOriginalFileName(),
+                session.getContentType(),
+                session.getTotalSize(),
+                session.getChunkSize(),
+                session.getChunkCount(),
+                session.getStatus(),
+                receivedChunks,
+                receivedRanges,
+                session.getFileId(),
+                session.getExpiresAt()
+        );
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+}
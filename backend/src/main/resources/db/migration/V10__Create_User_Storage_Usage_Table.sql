@@ -0,0 +1,18 @@
+-- Running totals per user, kept up to date in the transactions that add and remove files
+CREATE TABLE user_storage_usage (
+    user_id BIGINT PRIMARY KEY,
+    file_count BIGINT NOT NULL DEFAULT 0,
+    total_bytes BIGINT NOT NULL DEFAULT 0,
+    -- Bytes of uploads in progress, held against the quota until their files are saved
+    reserved_bytes BIGINT NOT NULL DEFAULT 0,
+    -- Per-user quota; NULL uses the configured default
+    quota_bytes BIGINT,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_user_storage_usage_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+INSERT INTO user_storage_usage (user_id, file_count, total_bytes)
+SELECT u.id, COUNT(f.id), COALESCE(SUM(f.file_size), 0)
+FROM users u
+LEFT JOIN files f ON f.user_id = u.id
+GROUP BY u.id;
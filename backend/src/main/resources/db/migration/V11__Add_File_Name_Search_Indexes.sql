@@ -0,0 +1,6 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+-- Lets the owner column share the GIN index with the trigrams, so searches never scan other users' files
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+CREATE INDEX idx_files_user_name_trgm ON files USING gin (user_id, lower(original_file_name) gin_trgm_ops);
+CREATE INDEX idx_files_user_name_prefix ON files (user_id, lower(original_file_name) text_pattern_ops);
@@ -0,0 +1,27 @@
+CREATE SEQUENCE IF NOT EXISTS folder_id_seq START WITH 1 INCREMENT BY 50;
+
+-- path lists the ids of a folder's ancestors, e.g. '/4/17/' for a folder inside 17 inside 4, and '/' at the top level
+CREATE TABLE folders (
+    id BIGINT PRIMARY KEY DEFAULT nextval('folder_id_seq'),
+    name VARCHAR(255) NOT NULL,
+    user_id BIGINT NOT NULL,
+    parent_id BIGINT,
+    path TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_folders_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT fk_folders_parent FOREIGN KEY (parent_id) REFERENCES folders(id)
+);
+
+-- Direct children, in name order
+CREATE INDEX idx_folders_user_parent_name ON folders (user_id, parent_id, name);
+-- Whole subtrees, as a prefix range on path
+CREATE INDEX idx_folders_user_path ON folders (user_id, path text_pattern_ops);
+CREATE UNIQUE INDEX idx_folders_user_parent_name_unique ON folders (user_id, COALESCE(parent_id, 0), lower(name));
+
+ALTER TABLE files ADD COLUMN folder_id BIGINT;
+ALTER TABLE files ADD CONSTRAINT fk_files_folder FOREIGN KEY (folder_id) REFERENCES folders(id);
+
+-- A folder's files in name order; top-level files have no folder
+CREATE INDEX idx_files_folder_name_id ON files (folder_id, original_file_name, id);
+CREATE INDEX idx_files_user_top_level_name_id ON files (user_id, original_file_name, id) WHERE folder_id IS NULL;
@@ -0,0 +1,2 @@
+-- Files without a blob own their storage object outright, so no two of them may share a key
+CREATE UNIQUE INDEX idx_files_s3_key_unblobbed ON files (s3_key) WHERE blob_id IS NULL;
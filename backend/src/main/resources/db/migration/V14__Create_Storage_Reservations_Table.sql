@@ -0,0 +1,16 @@
+CREATE SEQUENCE IF NOT EXISTS storage_reservation_id_seq START WITH 1 INCREMENT BY 1;
+
+-- One row per quota reservation counted in user_storage_usage.reserved_bytes, so that a reservation
+-- whose upload never finished (e.g. its instance died) can expire instead of holding the quota forever
+CREATE TABLE storage_reservations (
+    id BIGINT PRIMARY KEY DEFAULT nextval('storage_reservation_id_seq'),
+    user_id BIGINT NOT NULL,
+    bytes BIGINT NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    CONSTRAINT fk_storage_reservations_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_storage_reservations_expires_at ON storage_reservations(expires_at);
+
+-- Reservations taken before this migration have no row to expire them by
+UPDATE user_storage_usage SET reserved_bytes = 0 WHERE reserved_bytes <> 0;
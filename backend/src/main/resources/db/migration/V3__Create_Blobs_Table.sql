@@ -0,0 +1,21 @@
+CREATE SEQUENCE IF NOT EXISTS blob_id_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE blobs (
+    id BIGINT PRIMARY KEY DEFAULT nextval('blob_id_seq'),
+    sha256 VARCHAR(64) NOT NULL,
+    size BIGINT NOT NULL,
+    s3_key VARCHAR(500) NOT NULL,
+    s3_bucket VARCHAR(255) NOT NULL,
+    ref_count BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT blobs_sha256_unique UNIQUE (sha256)
+);
+
+-- Deduplicated files share their blob's storage key, so it is no longer unique per row
+ALTER TABLE files DROP CONSTRAINT IF EXISTS files_s3_key_unique;
+ALTER TABLE files DROP CONSTRAINT IF EXISTS files_s3_key_key;
+
+ALTER TABLE files ADD COLUMN blob_id BIGINT;
+ALTER TABLE files ADD CONSTRAINT fk_files_blob FOREIGN KEY (blob_id) REFERENCES blobs(id);
+
+CREATE INDEX idx_files_blob_id ON files(blob_id);
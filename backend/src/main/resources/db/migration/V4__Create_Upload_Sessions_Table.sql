@@ -0,0 +1,34 @@
+CREATE TABLE upload_sessions (
+    id VARCHAR(36) PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    original_file_name VARCHAR(255) NOT NULL,
+    content_type VARCHAR(100) NOT NULL,
+    total_size BIGINT NOT NULL,
+    chunk_size BIGINT NOT NULL,
+    chunk_count INTEGER NOT NULL,
+    s3_key VARCHAR(500) NOT NULL,
+    s3_bucket VARCHAR(255) NOT NULL,
+    s3_upload_id VARCHAR(1024) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE',
+    file_id BIGINT,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_upload_sessions_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_upload_sessions_user_id ON upload_sessions(user_id);
+CREATE INDEX idx_upload_sessions_status_expires_at ON upload_sessions(status, expires_at);
+
+CREATE SEQUENCE IF NOT EXISTS upload_session_part_id_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE upload_session_parts (
+    id BIGINT PRIMARY KEY DEFAULT nextval('upload_session_part_id_seq'),
+    session_id VARCHAR(36) NOT NULL,
+    part_number INTEGER NOT NULL,
+    etag VARCHAR(255) NOT NULL,
+    size BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_upload_session_parts_session FOREIGN KEY (session_id) REFERENCES upload_sessions(id) ON DELETE CASCADE,
+    CONSTRAINT upload_session_parts_unique UNIQUE (session_id, part_number)
+);
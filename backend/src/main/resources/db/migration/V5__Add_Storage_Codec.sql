@@ -0,0 +1,10 @@
+-- Content may be stored compressed; size and file_size stay the logical (uncompressed) size
+ALTER TABLE blobs ADD COLUMN storage_codec VARCHAR(20) NOT NULL DEFAULT 'NONE';
+ALTER TABLE blobs ADD COLUMN stored_size BIGINT;
+UPDATE blobs SET stored_size = size;
+ALTER TABLE blobs ALTER COLUMN stored_size SET NOT NULL;
+
+ALTER TABLE files ADD COLUMN storage_codec VARCHAR(20) NOT NULL DEFAULT 'NONE';
+ALTER TABLE files ADD COLUMN stored_size BIGINT;
+UPDATE files SET stored_size = file_size;
+ALTER TABLE files ALTER COLUMN stored_size SET NOT NULL;
@@ -0,0 +1,2 @@
+-- Hibernate reserves 50 ids per sequence call (pooled optimizer) so batched inserts skip a round trip per row
+ALTER SEQUENCE file_id_seq INCREMENT BY 50;
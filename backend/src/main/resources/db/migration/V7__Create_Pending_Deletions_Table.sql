@@ -0,0 +1,14 @@
+-- Storage objects no longer referenced by any row, removed by the background collector
+CREATE SEQUENCE IF NOT EXISTS pending_deletion_id_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE pending_deletions (
+    id BIGINT PRIMARY KEY DEFAULT nextval('pending_deletion_id_seq'),
+    s3_bucket VARCHAR(255) NOT NULL,
+    s3_key VARCHAR(500) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_pending_deletions_next_attempt_at ON pending_deletions(next_attempt_at);
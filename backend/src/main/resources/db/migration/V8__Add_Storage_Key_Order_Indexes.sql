@@ -0,0 +1,3 @@
+-- Storage lists keys in byte order; these indexes let reconciliation page through keys in the same order
+CREATE INDEX idx_files_s3_key_c ON files (s3_key COLLATE "C");
+CREATE INDEX idx_blobs_s3_key_c ON blobs (s3_key COLLATE "C");
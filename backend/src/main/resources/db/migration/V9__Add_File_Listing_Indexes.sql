@@ -0,0 +1,7 @@
+-- Keyset listings seek on (user_id, <sort column>, id); each index serves both directions
+CREATE INDEX idx_files_user_created_at_id ON files (user_id, created_at DESC, id DESC);
+CREATE INDEX idx_files_user_original_file_name_id ON files (user_id, original_file_name, id);
+CREATE INDEX idx_files_user_file_size_id ON files (user_id, file_size, id);
+
+-- Covered by the leading column of the indexes above
+DROP INDEX IF EXISTS idx_files_user_id;
@@ -0,0 +1,81 @@
+package com.filemanager.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalUrlSignerTest {
+
+    private static final String BUCKET = "files";
+    private static final String KEY = "files/1/report final.txt";
+
+    private final LocalUrlSigner signer = new LocalUrlSigner("http://localhost:8080", "test-signing-key");
+
+    @Test
+    void verifiesSignedPut() {
+        Map<String, String> params = parse(signer.signPut(BUCKET, KEY, 1024, Instant.now().plusSeconds(60)));
+
+        assertThat(params.get("key")).isEqualTo(KEY);
+        assertThat(verify(params, "PUT", KEY, "1024")).isTrue();
+    }
+
+    @Test
+    void rejectsPutForAnotherLengthKeyOrMethod() {
+        Map<String, String> params = parse(signer.signPut(BUCKET, KEY, 1024, Instant.now().plusSeconds(60)));
+
+        assertThat(verify(params, "PUT", KEY, "1025")).isFalse();
+        assertThat(verify(params, "PUT", "files/1/other.txt", "1024")).isFalse();
+        assertThat(verify(params, "GET", KEY, "1024")).isFalse();
+    }
+
+    @Test
+    void verifiesSignedGetWithEncoding() {
+        Map<String, String> params = parse(signer.signGet(BUCKET, KEY, "report.txt", "deflate",
+                Instant.now().plusSeconds(60)));
+
+        assertThat(params.get("encoding")).isEqualTo("deflate");
+        assertThat(verify(params, "GET", KEY, LocalUrlSigner.getDetail("report.txt", "deflate"))).isTrue();
+        assertThat(verify(params, "GET", KEY, LocalUrlSigner.getDetail("report.txt", null))).isFalse();
+        assertThat(verify(params, "GET", KEY, LocalUrlSigner.getDetail("other.txt", "deflate"))).isFalse();
+    }
+
+    @Test
+    void rejectsExpiredUrl() {
+        Map<String, String> params = parse(signer.signPut(BUCKET, KEY, 1024, Instant.now().minusSeconds(1)));
+
+        assertThat(verify(params, "PUT", KEY, "1024")).isFalse();
+    }
+
+    @Test
+    void rejectsMissingOrForeignSignature() {
+        long expires = Instant.now().plusSeconds(60).getEpochSecond();
+        Map<String, String> foreign = parse(new LocalUrlSigner("http://localhost:8080", "another-key")
+                .signPut(BUCKET, KEY, 1024, Instant.ofEpochSecond(expires)));
+
+        assertThat(signer.verify("PUT", BUCKET, KEY, "1024", expires, null)).isFalse();
+        assertThat(verify(foreign, "PUT", KEY, "1024")).isFalse();
+    }
+
+    private boolean verify(Map<String, String> params, String method, String key, String detail) {
+        return signer.verify(method, BUCKET, key, detail,
+                Long.parseLong(params.get("expires")), params.get("signature"));
+    }
+
+    private static Map<String, String> parse(String url) {
+        URI uri = URI.create(url);
+        assertThat(uri.getPath()).isEqualTo(LocalUrlSigner.PATH);
+        return Arrays.stream(uri.getRawQuery().split("&"))
+                .map(param -> param.split("=", 2))
+                .collect(Collectors.toMap(
+                        param -> URLDecoder.decode(param[0], StandardCharsets.UTF_8),
+                        param -> URLDecoder.decode(param[1], StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,195 @@
+package com.filemanager.controllers;
+
+import com.filemanager.dto.FileDTO;
+import com.filemanager.dto.FileDownload;
+import com.filemanager.services.FileContent;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileDownloadResponsesTest {
+
+    private static final byte[] CONTENT = new byte[100];
+    private static final String ETAG = "\"abc123\"";
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 1, 12, 30, 15);
+
+    static {
+        for (int i = 0; i < CONTENT.length; i++) {
+            CONTENT[i] = (byte) i;
+        }
+    }
+
+    private static final FileDownload DOWNLOAD = new FileDownload(
+            new FileDTO(1L, "stored.bin", "data.bin", (long) CONTENT.length, "application/octet-stream",
+                    null, null, CREATED_AT, CREATED_AT, 1L, null),
+            ETAG,
+            new FileContent() {
+                @Override
+                public InputStream openStream() {
+                    return new ByteArrayInputStream(CONTENT);
+                }
+
+                @Override
+                public InputStream openRange(long start, long end) {
+                    return new ByteArrayInputStream(CONTENT, (int) start, (int) (end - start + 1));
+                }
+            });
+
+    @Test
+    void sendsWholeFileWithoutRange() throws IOException {
+        ResponseEntity<Resource> response = build(new HttpHeaders());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(100);
+        assertThat(body(response)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void sendsSuffixRange() throws IOException {
+        ResponseEntity<Resource> response = build(range("bytes=-10"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 90-99/100");
+        assertThat(body(response)).isEqualTo(Arrays.copyOfRange(CONTENT, 90, 100));
+    }
+
+    @Test
+    void sendsOpenEndedRange() throws IOException {
+        ResponseEntity<Resource> response = build(range("bytes=95-"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 95-99/100");
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(5);
+        assertThat(body(response)).isEqualTo(Arrays.copyOfRange(CONTENT, 95, 100));
+    }
+
+    @Test
+    void clampsRangeEndToFileLength() throws IOException {
+        ResponseEntity<Resource> response = build(range("bytes=98-500"));
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 98-99/100");
+        assertThat(body(response)).isEqualTo(Arrays.copyOfRange(CONTENT, 98, 100));
+    }
+
+    @Test
+    void rejectsUnsatisfiableRange() {
+        ResponseEntity<Resource> response = build(range("bytes=100-200"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */100");
+        assertThat(response.getBody()).isNull();
+    }
+
+    @Test
+    void sendsWholeFileForOverlappingRangesLargerThanIt() throws IOException {
+        ResponseEntity<Resource> response = build(range("bytes=0-60,40-99"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(body(response)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void sendsWholeFileForTooManyRanges() {
+        String ranges = IntStream.range(0, 17)
+                .mapToObj(i -> i * 2 + "-" + i * 2)
+                .collect(Collectors.joining(",", "bytes=", ""));
+
+        assertThat(build(range(ranges)).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void ignoresMalformedRange() {
+        assertThat(build(range("bytes=abc")).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void sendsMultipleRangesAsMultipart() throws IOException {
+        ResponseEntity<Resource> response = build(range("bytes=0-1,10-12"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        MediaType contentType = response.getHeaders().getContentType();
+        assertThat(contentType.isCompatibleWith(MediaType.parseMediaType("multipart/byteranges"))).isTrue();
+        String boundary = contentType.getParameter("boundary");
+
+        byte[] body = body(response);
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(body.length);
+        String text = new String(body, StandardCharsets.ISO_8859_1);
+        assertThat(text).contains("Content-Range: bytes 0-1/100\r\n\r\n" + latin1(0, 2));
+        assertThat(text).contains("Content-Range: bytes 10-12/100\r\n\r\n" + latin1(10, 13));
+        assertThat(text).endsWith("\r\n--" + boundary + "--");
+    }
+
+    @Test
+    void honoursRangeWhenIfRangeMatchesETag() {
+        HttpHeaders headers = range("bytes=0-9");
+        headers.set(HttpHeaders.IF_RANGE, ETAG);
+
+        assertThat(build(headers).getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+    }
+
+    @Test
+    void sendsWholeFileForStaleIfRangeETag() {
+        HttpHeaders headers = range("bytes=0-9");
+        headers.set(HttpHeaders.IF_RANGE, "\"other\"");
+
+        assertThat(build(headers).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void sendsWholeFileForWeakIfRange() {
+        HttpHeaders headers = range("bytes=0-9");
+        headers.set(HttpHeaders.IF_RANGE, "W/" + ETAG);
+
+        assertThat(build(headers).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void comparesIfRangeDateWithLastModified() {
+        ZonedDateTime lastModified = CREATED_AT.atZone(ZoneId.systemDefault());
+
+        HttpHeaders current = range("bytes=0-9");
+        current.set(HttpHeaders.IF_RANGE, DateTimeFormatter.RFC_1123_DATE_TIME.format(lastModified));
+        assertThat(build(current).getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+
+        HttpHeaders stale = range("bytes=0-9");
+        stale.set(HttpHeaders.IF_RANGE, DateTimeFormatter.RFC_1123_DATE_TIME.format(lastModified.minusDays(1)));
+        assertThat(build(stale).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private static ResponseEntity<Resource> build(HttpHeaders headers) {
+        return FileDownloadResponses.build(DOWNLOAD, headers);
+    }
+
+    private static HttpHeaders range(String range) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RANGE, range);
+        return headers;
+    }
+
+    private static byte[] body(ResponseEntity<Resource> response) throws IOException {
+        try (InputStream inputStream = response.getBody().getInputStream()) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    private static String latin1(int from, int to) {
+        return new String(Arrays.copyOfRange(CONTENT, from, to), StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,109 @@
+package com.filemanager.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filemanager.AbstractTestcontainers;
+import com.filemanager.config.JWTUtil;
+import com.filemanager.models.User;
+import com.filemanager.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Drives a resumable upload through the API against the local storage
+ * backend: chunk PUTs run outside a request transaction, so this is where a
+ * repository write that needs one shows up.
+ */
+@SpringBootTest(properties = {"aws.s3.mock=true", "app.email.enabled=false"})
+@AutoConfigureMockMvc
+class UploadSessionControllerIT extends AbstractTestcontainers {
+
+    private static final String UPLOADS = "/api/v1/files/uploads";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JWTUtil jwtUtil;
+
+    private String bearer;
+
+    @DynamicPropertySource
+    private static void registerStorageProperties(DynamicPropertyRegistry registry) throws IOException {
+        String root = Files.createTempDirectory("filemanager-s3").toString();
+        registry.add("aws.s3.local.root", () -> root);
+    }
+
+    @BeforeEach
+    void setUp() {
+        User user = new User(FAKER.name().fullName(), FAKER.internet().safeEmailAddress(), "password");
+        user.setEnabled(true);
+        userRepository.save(user);
+        bearer = "Bearer " + jwtUtil.issueToken(user.getEmail());
+    }
+
+    @Test
+    void uploadsChunkAndCompletesSession() throws Exception {
+        byte[] content = FAKER.lorem().characters(4096).getBytes();
+
+        String created = mockMvc.perform(post(UPLOADS)
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "fileName", "notes.txt",
+                                "contentType", "text/plain",
+                                "totalSize", content.length))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.chunkCount").value(1))
+                .andReturn().getResponse().getContentAsString();
+        String sessionId = objectMapper.readTree(created).get("sessionId").asText();
+
+        mockMvc.perform(put(UPLOADS + "/{sessionId}/chunks/{chunkIndex}", sessionId, 0)
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(content))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(UPLOADS + "/{sessionId}", sessionId)
+                        .header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.receivedChunks[0]").value(0));
+
+        String completed = mockMvc.perform(post(UPLOADS + "/{sessionId}/complete", sessionId)
+                        .header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode file = objectMapper.readTree(completed);
+
+        byte[] downloaded = mockMvc.perform(get("/api/v1/files/{fileId}/download", file.get("fileId").asLong())
+                        .header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(downloaded).isEqualTo(content);
+    }
+}
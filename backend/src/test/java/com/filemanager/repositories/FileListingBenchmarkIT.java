@@ -0,0 +1,137 @@
+package com.filemanager.repositories;
+
+import com.filemanager.AbstractTestcontainers;
+import com.filemanager.dto.FileDTO;
+import com.filemanager.models.File;
+import com.filemanager.models.FileSummary;
+import com.filemanager.models.User;
+import com.filemanager.services.FileDTOMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares a 10k-row listing page loaded as managed entities, as listings
+ * used to be, with the same page selected as {@link FileSummary}
+ * projections. Prints the average allocation and latency of each.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(FileDTOMapper.class)
+class FileListingBenchmarkIT extends AbstractTestcontainers {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileListingBenchmarkIT.class);
+
+    private static final int ROWS = 10_000;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 20;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FileDTOMapper fileDTOMapper;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        Long ownerId = jdbcTemplate.queryForObject(
+                "INSERT INTO users (name, email, password) VALUES (?, ?, ?) RETURNING id",
+                Long.class, FAKER.name().fullName(), FAKER.internet().uuid() + "@example.com", "password");
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO files (id, file_name, original_file_name, file_size, content_type,
+                                   s3_key, s3_bucket, user_id, created_at, updated_at, stored_size)
+                VALUES (nextval('file_id_seq'), ?, ?, ?, ?, ?, 'bench', ?, ?, ?, ?)
+                """, IntStream.range(0, ROWS).mapToObj(i -> {
+            Timestamp createdAt = Timestamp.valueOf(start.plusSeconds(i));
+            return new Object[]{
+                    "file-" + i + ".png", FAKER.file().fileName(), 1024L + i,
+                    i % 2 == 0 ? "image/png" : "application/pdf",
+                    "files/bench/" + ownerId + "/" + i, ownerId, createdAt, createdAt, 1024L + i};
+        }).collect(Collectors.toList()));
+        owner = entityManager.getReference(User.class, ownerId);
+    }
+
+    @Test
+    void projectionPageAllocatesLessThanEntityPage() {
+        Supplier<List<FileDTO>> entities = () -> entityManager.createQuery(
+                        "SELECT f FROM File f WHERE f.owner = :owner ORDER BY f.createdAt DESC, f.id DESC",
+                        File.class)
+                .setParameter("owner", owner)
+                .setMaxResults(ROWS)
+                .getResultList()
+                .stream()
+                .map(fileDTOMapper)
+                .collect(Collectors.toList());
+        Supplier<List<FileDTO>> projections = () -> entityManager.createQuery(
+                        "SELECT " + FileRepository.SUMMARY
+                                + " FROM File f WHERE f.owner = :owner ORDER BY f.createdAt DESC, f.id DESC",
+                        FileSummary.class)
+                .setParameter("owner", owner)
+                .setMaxResults(ROWS)
+                .getResultList()
+                .stream()
+                .map(fileDTOMapper::fromSummary)
+                .collect(Collectors.toList());
+
+        assertThat(projections.get()).hasSize(ROWS).isEqualTo(entities.get());
+
+        Result before = measure(entities);
+        Result after = measure(projections);
+        logger.info("Listing {} rows as entities: {} bytes/op, {} ms/op",
+                ROWS, before.bytes(), String.format("%.2f", before.millis()));
+        logger.info("Listing {} rows as projections: {} bytes/op, {} ms/op",
+                ROWS, after.bytes(), String.format("%.2f", after.millis()));
+
+        assertThat(after.bytes()).isLessThan(before.bytes());
+    }
+
+    private Result measure(Supplier<List<FileDTO>> listing) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            listing.get();
+            entityManager.clear();
+        }
+
+        long bytes = 0;
+        long nanos = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long startedAt = System.nanoTime();
+            listing.get();
+            // Flushing the persistence context is where managed entities pay for dirty checking
+            entityManager.flush();
+            nanos += System.nanoTime() - startedAt;
+            bytes += threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+            entityManager.clear();
+        }
+        return new Result(bytes / MEASURED_ITERATIONS, nanos / 1e6 / MEASURED_ITERATIONS);
+    }
+
+    private record Result(long bytes, double millis) {
+    }
+}
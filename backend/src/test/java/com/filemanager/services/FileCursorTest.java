@@ -0,0 +1,60 @@
+package com.filemanager.services;
+
+import com.filemanager.models.FileSortKey;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileCursorTest {
+
+    @Test
+    void roundTripsNamesContainingSeparators() {
+        FileCursor cursor = new FileCursor(FileSortKey.ORIGINAL_FILE_NAME, true, "report:v2:final.txt", 42);
+
+        FileCursor decoded = FileCursor.decode(cursor.encode(), FileSortKey.ORIGINAL_FILE_NAME, true);
+
+        assertThat(decoded).isEqualTo(cursor);
+    }
+
+    @Test
+    void roundTripsTimestamps() {
+        FileCursor cursor = new FileCursor(FileSortKey.CREATED_AT, false,
+                LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000), 7);
+
+        FileCursor decoded = FileCursor.decode(cursor.encode(), FileSortKey.CREATED_AT, false);
+
+        assertThat(decoded).isEqualTo(cursor);
+    }
+
+    @Test
+    void encodesAsUrlSafeToken() {
+        String encoded = new FileCursor(FileSortKey.ORIGINAL_FILE_NAME, true, "a/b?c=d&e+f", 1).encode();
+
+        assertThat(encoded).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void rejectsCursorForAnotherSort() {
+        String encoded = new FileCursor(FileSortKey.ORIGINAL_FILE_NAME, true, "a.txt", 1).encode();
+
+        assertThatThrownBy(() -> FileCursor.decode(encoded, FileSortKey.ORIGINAL_FILE_NAME, false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor does not match the requested sort");
+        assertThatThrownBy(() -> FileCursor.decode(encoded, FileSortKey.FILE_SIZE, true))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor does not match the requested sort");
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertThatThrownBy(() -> FileCursor.decode("not a cursor!", FileSortKey.CREATED_AT, false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> FileCursor.decode("Q1JFQVRFRF9BVA", FileSortKey.CREATED_AT, false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+}
@@ -0,0 +1,4 @@
+#!/bin/bash
+# Lets streaming replicas (the db-replica service) connect with the database password
+set -e
+echo "host replication all all md5" >> "$PGDATA/pg_hba.conf"
@@ -23,7 +23,7 @@ import { uploadFile } from '../../api/client.js';
 import { errorNotification, successNotification } from '../../utils/notification.js';
 import { FiUpload, FiFile, FiX } from 'react-icons/fi';
 
-const MAX_FILE_SIZE = 50 * 1024 * 1024; // 50MB
+const MAX_FILE_SIZE = 1024 * 1024 * 1024; // 1GB
 
 const formatFileSize = (bytes) => {
     if (bytes === 0) return '0 Bytes';